@@ -2,8 +2,12 @@ package com.mitocode;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableCaching //spring.cache.type=none lo desactiva por ambiente
+@EnableScheduling
 public class MediappBackendApplication {
 
     public static void main(String[] args) {
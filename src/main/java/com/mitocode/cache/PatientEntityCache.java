@@ -0,0 +1,83 @@
+package com.mitocode.cache;
+
+import com.mitocode.model.Patient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentMap;
+
+//Cache de entidades de PatientServiceImpl.findById ("patients", spring.cache.*). Reemplaza a @Cacheable para cerrar
+//una carrera: una lectura que no encuentra el id carga la fila vieja, la escritura confirma y desaloja, y recien
+//despues la lectura guardaba el Patient viejo. Aqui la lectura toma la generacion de PatientResponseCache antes de
+//ir a la BD y solo guarda si no cambio; la escritura desaloja y avanza la generacion dentro del compute() de la
+//misma clave, asi el guardado y el desalojo no se intercalan y una respuesta de la generacion nueva no puede
+//encontrar el Patient anterior
+@Component
+public class PatientEntityCache {
+
+    public static final String NAME = "patients";
+
+    private final CacheManager cacheManager;
+    private final PatientResponseCache responseCache;
+
+    public PatientEntityCache(CacheManager cacheManager, PatientResponseCache responseCache) {
+        this.cacheManager = cacheManager;
+        this.responseCache = responseCache;
+    }
+
+    public Patient get(Integer id) {
+        Cache cache = cacheManager.getCache(NAME);
+        return cache == null ? null : cache.get(id, Patient.class);
+    }
+
+    //se lee antes de consultar la BD y se pasa a putIfCurrent()
+    public long generation() {
+        return responseCache.generation();
+    }
+
+    public void putIfCurrent(Integer id, Patient patient, long loadedAtGeneration) {
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache == null) {
+            return;
+        }
+        ConcurrentMap<Object, Object> map = nativeMap(cache);
+        if (map == null) {
+            if (responseCache.generation() == loadedAtGeneration) {
+                cache.put(id, patient);
+            }
+            return;
+        }
+        map.compute(id, (key, current) -> responseCache.generation() == loadedAtGeneration ? patient : current);
+    }
+
+    //despues de escribir el paciente: desaloja su entrada e invalida las respuestas serializadas
+    public void invalidate(Integer id) {
+        Cache cache = cacheManager.getCache(NAME);
+        ConcurrentMap<Object, Object> map = cache == null ? null : nativeMap(cache);
+        if (map == null) {
+            if (cache != null) {
+                cache.evict(id);
+            }
+            responseCache.invalidateAll();
+            return;
+        }
+        map.compute(id, (key, current) -> {
+            responseCache.invalidateAll();
+            return null;
+        });
+    }
+
+    //Caffeine (spring.cache.type=caffeine) o ConcurrentMapCache; con otro proveedor se usa la API de Spring
+    @SuppressWarnings("unchecked")
+    private static ConcurrentMap<Object, Object> nativeMap(Cache cache) {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return (ConcurrentMap<Object, Object>) caffeine.asMap();
+        }
+        if (nativeCache instanceof ConcurrentMap<?, ?> map) {
+            return (ConcurrentMap<Object, Object>) map;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.mitocode.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Respuestas de /patients ya serializadas (bytes + ETag) para paginas y detalles muy consultados.
+//Cualquier escritura de pacientes invalida todo: las escrituras son pocas frente a las lecturas y asi ninguna pagina
+//queda desactualizada. La generacion evita guardar una respuesta calculada antes de una escritura concurrente
+@Component
+public class PatientResponseCache {
+
+    public record CachedResponse(String etag, byte[] body) {
+    }
+
+    private record Entry(CachedResponse response, long generation) {
+    }
+
+    private final Cache<String, Entry> responses;
+    private final AtomicLong generation = new AtomicLong();
+    private final boolean enabled;
+
+    public PatientResponseCache(@Value("${patient.response-cache.enabled}") boolean enabled,
+                                @Value("${patient.response-cache.max-size}") DataSize maxSize,
+                                @Value("${patient.response-cache.ttl}") Duration ttl,
+                                MeterRegistry registry) {
+        this.enabled = enabled;
+        this.responses = Caffeine.newBuilder()
+                //por bytes y no por cantidad: una pagina de 500 filas pesa mucho mas que un detalle
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.response().etag().length()
+                        + entry.response().body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, responses, "patientResponses");
+    }
+
+    //se lee antes de consultar la BD y se pasa a put()
+    public long generation() {
+        return generation.get();
+    }
+
+    public CachedResponse get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = responses.getIfPresent(key);
+        return entry == null || entry.generation() != generation.get() ? null : entry.response();
+    }
+
+    public void put(String key, CachedResponse response, long loadedAtGeneration) {
+        if (enabled && loadedAtGeneration == generation.get()) {
+            responses.put(key, new Entry(response, loadedAtGeneration));
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        responses.invalidateAll();
+    }
+}
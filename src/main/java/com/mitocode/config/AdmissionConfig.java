@@ -0,0 +1,69 @@
+package com.mitocode.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mitocode.util.AdmissionController;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+//Los maximos concurrentes deben sumar menos que spring.datasource.hikari.maximum-pool-size: el exceso espera aqui
+//(con limite y metricas) y no en el pool de conexiones
+@Configuration
+@ConditionalOnProperty(name = "patient.admission.enabled", havingValue = "true")
+public class AdmissionConfig {
+
+    @Value("${patient.admission.target}")
+    private Duration target;
+
+    @Value("${patient.admission.interval}")
+    private Duration interval;
+
+    @Value("${patient.admission.max-wait}")
+    private Duration maxWait;
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(
+            @Value("${patient.controller.path}") String path,
+            @Value("${patient.admission.reads.max-concurrent}") int readConcurrency,
+            @Value("${patient.admission.reads.max-queue}") int readQueue,
+            @Value("${patient.admission.writes.max-concurrent}") int writeConcurrency,
+            @Value("${patient.admission.writes.max-queue}") int writeQueue,
+            @Value("${patient.admission.retry-after}") long retryAfter,
+            ObjectMapper mapper, MeterRegistry registry) {
+        AdmissionController reads = controller("reads", readConcurrency, readQueue, registry);
+        AdmissionController writes = controller("writes", writeConcurrency, writeQueue, registry);
+
+        FilterRegistrationBean<AdmissionFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionFilter(path, reads, writes, retryAfter, mapper));
+        registration.addUrlPatterns(path + "/*", path);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private AdmissionController controller(String group, int maxConcurrent, int maxQueue, MeterRegistry registry) {
+        Timer sojourn = Timer.builder("admission.sojourn")
+                .description("Time a request waited for a DB work slot")
+                .tag("group", group)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        AdmissionController controller = new AdmissionController(maxConcurrent, maxQueue, target.toNanos(),
+                interval.toNanos(), maxWait.toNanos(), nanos -> sojourn.record(nanos, TimeUnit.NANOSECONDS));
+
+        Gauge.builder("admission.queue.depth", controller, AdmissionController::queueDepth).tag("group", group).register(registry);
+        Gauge.builder("admission.in_flight", controller, AdmissionController::inFlight).tag("group", group).register(registry);
+        Gauge.builder("admission.dropping", controller, c -> c.isDropping() ? 1 : 0).tag("group", group).register(registry);
+        FunctionCounter.builder("admission.admitted", controller, AdmissionController::admitted).tag("group", group).register(registry);
+        FunctionCounter.builder("admission.rejected", controller, AdmissionController::rejected).tag("group", group).register(registry);
+        return controller;
+    }
+}
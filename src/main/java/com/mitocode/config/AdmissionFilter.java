@@ -0,0 +1,110 @@
+package com.mitocode.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mitocode.util.AdmissionController;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+//Admision por grupo de endpoints: lecturas (GET/HEAD) y escrituras usan controladores separados para que una
+//avalancha de lecturas no bloquee las altas. Si no hay cupo responde 503 con Retry-After sin tocar la BD
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final String pathPrefix;
+    private final AdmissionController reads;
+    private final AdmissionController writes;
+    private final String retryAfterSeconds;
+    private final ObjectMapper mapper;
+
+    public AdmissionFilter(String pathPrefix, AdmissionController reads, AdmissionController writes,
+                           long retryAfterSeconds, ObjectMapper mapper) {
+        this.pathPrefix = pathPrefix;
+        this.reads = reads;
+        this.writes = writes;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.mapper = mapper;
+    }
+
+    //solo el prefijo exacto o sus subrutas: /patientsFoo no es de este grupo
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String base = request.getContextPath() + pathPrefix;
+        String uri = request.getRequestURI();
+        return !(uri.equals(base) || uri.startsWith(base + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        AdmissionController controller = read ? reads : writes;
+
+        boolean admitted;
+        try {
+            admitted = controller.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            reject(response);
+            return;
+        }
+
+        //en /export el trabajo sigue en un hilo async con una conexion de Hikari: el cupo se mantiene hasta que la
+        //respuesta async termina (onComplete llega tambien despues de un error o timeout)
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(controller));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                controller.release();
+            }
+        }
+    }
+
+    private record ReleaseOnComplete(AdmissionController controller) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            controller.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        //si el ciclo async se reinicia, el contenedor descarta los listeners registrados
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "Server is overloaded, retry after " + retryAfterSeconds + " seconds");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        mapper.writeValue(response.getOutputStream(), problem);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mitocode.config;
+
+import com.mitocode.metrics.LayerTimingAspect;
+import com.mitocode.metrics.RequestDbTime;
+import com.mitocode.metrics.RequestDbTimeFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+//Latencias por capa en /actuator/metrics: patient.layer.latency (controller, service),
+//spring.data.repository.invocations (repository) y patient.request.db.time (tiempo de BD por solicitud)
+@Configuration
+@ConditionalOnProperty(name = "patient.metrics.layers.enabled", havingValue = "true")
+public class LayerMetricsConfig {
+
+    @Bean
+    public LayerTimingAspect layerTimingAspect(MeterRegistry registry) {
+        return new LayerTimingAspect(registry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestDbTimeFilter> requestDbTimeFilter(MeterRegistry registry) {
+        FilterRegistrationBean<RequestDbTimeFilter> registration = new FilterRegistrationBean<>(new RequestDbTimeFilter(registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    //static: los BeanPostProcessor se crean antes que el resto de beans de esta clase
+    @Bean
+    public static BeanPostProcessor requestDbTimeListener() {
+        RequestDbTime listener = new RequestDbTime();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.mitocode.config;
+
+import com.mitocode.dto.BatchResult;
+import com.mitocode.dto.CursorPage;
+import com.mitocode.dto.ImportError;
+import com.mitocode.dto.ImportResult;
+import com.mitocode.dto.PatientDni;
+import com.mitocode.dto.PatientView;
+import com.mitocode.model.Consult;
+import com.mitocode.model.ConsultDetail;
+import com.mitocode.model.ConsultExam;
+import com.mitocode.model.ConsultExamPK;
+import com.mitocode.model.Exam;
+import com.mitocode.model.Medic;
+import com.mitocode.model.Menu;
+import com.mitocode.model.Patient;
+import com.mitocode.model.Role;
+import com.mitocode.model.Specialty;
+import com.mitocode.model.User;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+//Metadata de reflexion para la imagen nativa (mvn -Pnative package); en la JVM estas anotaciones no hacen nada.
+//Los endpoints con @RequestBody/@ResponseBody ya generan sus hints en AOT; aqui va lo que se serializa a mano
+//(ResponseFormats, PatientResponseCache, idempotencia, importacion) y lo que se crea por reflexion.
+//Lombok no necesita nada: getters, setters y constructores se generan al compilar y son metodos normales
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+@RegisterReflectionForBinding({Patient.class, Medic.class, Specialty.class, Exam.class, Consult.class,
+        ConsultDetail.class, ConsultExam.class, User.class, Role.class, Menu.class,
+        PatientView.class, PatientDni.class, CursorPage.class, BatchResult.class, ImportResult.class, ImportError.class})
+public class NativeHintsConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        //Hibernate instancia las entidades y accede a sus campos (@Id en el campo) por reflexion
+        private static final Class<?>[] ENTITIES = {Patient.class, Medic.class, Specialty.class, Exam.class,
+                Consult.class, ConsultDetail.class, ConsultExam.class, ConsultExamPK.class, User.class, Role.class,
+                Menu.class};
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+
+            //Hikari carga el driver por nombre (spring.datasource.driver-class-name); el resto del driver de
+            //Postgres trae su propia metadata (META-INF/native-image en el jar y el repositorio de GraalVM)
+            hints.reflection().registerType(TypeReference.of("org.postgresql.Driver"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+            //SqlLoggingDataSource envuelve la conexion y las sentencias con java.lang.reflect.Proxy
+            hints.proxies().registerJdkProxy(Connection.class);
+            hints.proxies().registerJdkProxy(Statement.class);
+            hints.proxies().registerJdkProxy(PreparedStatement.class);
+            hints.proxies().registerJdkProxy(CallableStatement.class);
+            hints.proxies().registerJdkProxy(ResultSet.class);
+        }
+    }
+}
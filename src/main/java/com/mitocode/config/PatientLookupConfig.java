@@ -0,0 +1,43 @@
+package com.mitocode.config;
+
+import com.mitocode.model.Patient;
+import com.mitocode.util.DniIndex;
+import com.mitocode.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+@Configuration
+public class PatientLookupConfig {
+
+    //patient.lookup.collapsed / patient.lookup.calls = porcentaje de consultas a la BD que se ahorraron
+    @Bean
+    public SingleFlight<Integer, Optional<Patient>> patientLookups(MeterRegistry registry) {
+        SingleFlight<Integer, Optional<Patient>> lookups = new SingleFlight<>();
+        FunctionCounter.builder("patient.lookup.calls", lookups, SingleFlight::calls)
+                .description("findById calls that reached the single-flight group")
+                .register(registry);
+        FunctionCounter.builder("patient.lookup.collapsed", lookups, SingleFlight::collapsed)
+                .description("findById calls served by another call's in-flight query")
+                .register(registry);
+        Gauge.builder("patient.lookup.in_flight", lookups, SingleFlight::inFlight)
+                .register(registry);
+        return lookups;
+    }
+
+    //se llena en PatientServiceImpl.buildDniIndex() al iniciar; hasta entonces las busquedas por DNI van a la BD.
+    //Deshabilitado nunca se marca listo: se crea con el tamano minimo en lugar de reservar la tabla completa
+    @Bean
+    public DniIndex dniIndex(@Value("${patient.dni-index.enabled}") boolean enabled,
+                             @Value("${patient.dni-index.expected-size}") int expectedSize, MeterRegistry registry) {
+        DniIndex index = new DniIndex(enabled ? expectedSize : 0);
+        Gauge.builder("patient.dni_index.size", index, DniIndex::size).register(registry);
+        Gauge.builder("patient.dni_index.memory", index, DniIndex::memoryBytes).baseUnit("bytes").register(registry);
+        return index;
+    }
+}
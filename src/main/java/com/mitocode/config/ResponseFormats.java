@@ -0,0 +1,74 @@
+package com.mitocode.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+//Formatos de respuesta para los endpoints que serializan ellos mismos (bytes cacheados de PatientController).
+//CBOR y Smile usan la misma configuracion de Jackson que el JSON de Spring Boot, solo cambia el encoding.
+//No se exponen como beans ObjectMapper: otro bean de ese tipo desactivaria el ObjectMapper autoconfigurado
+@Component
+public class ResponseFormats {
+
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    public record Format(String name, MediaType mediaType, ObjectMapper mapper) {
+    }
+
+    private final Format json;
+    private final Format cbor;
+    private final Format smile;
+
+    public ResponseFormats(ObjectMapper mapper, Jackson2ObjectMapperBuilder builder) {
+        this.json = new Format("json", MediaType.APPLICATION_JSON, mapper);
+        this.cbor = new Format("cbor", APPLICATION_CBOR, builder.factory(new CBORFactory()).build());
+        this.smile = new Format("smile", APPLICATION_SMILE, builder.factory(new SmileFactory()).build());
+    }
+
+    //Formato soportado con mayor preferencia (q) en el header Accept; JSON por defecto y para */* o application/*
+    public Format negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return json;
+        }
+        List<MediaType> requested;
+        try {
+            requested = MediaType.parseMediaTypes(accept);
+        } catch (IllegalArgumentException e) {
+            return json;
+        }
+
+        Format best = json;
+        double bestQuality = -1;
+        for (MediaType type : requested) {
+            //q=0 significa "no aceptable" (RFC 9110), nunca se elige
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            Format format = match(type);
+            if (format != null && type.getQualityValue() > bestQuality) {
+                best = format;
+                bestQuality = type.getQualityValue();
+            }
+        }
+        return best;
+    }
+
+    private Format match(MediaType type) {
+        if (type.isWildcardType() || type.isWildcardSubtype()) {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(type) ? json : null;
+        }
+        if (type.isCompatibleWith(APPLICATION_CBOR)) {
+            return cbor;
+        }
+        if (type.isCompatibleWith(APPLICATION_SMILE)) {
+            return smile;
+        }
+        return type.isCompatibleWith(MediaType.APPLICATION_JSON) ? json : null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.mitocode.config;
+
+import com.mitocode.sqllog.SqlLog;
+import com.mitocode.sqllog.SqlLoggingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+//Reemplazo de spring.jpa.show-sql: log asincrono y muestreado de todas las sentencias JDBC (JPA, JdbcTemplate,
+//importacion), en el logger "sql". sql.log.dropped > 0 indica que el buffer se lleno y se perdieron lineas
+@Configuration
+@ConditionalOnProperty(name = "patient.sql-log.enabled", havingValue = "true")
+public class SqlLogConfig {
+
+    @Bean
+    public SqlLog sqlLog(@Value("${patient.sql-log.buffer-size}") int bufferSize,
+                         @Value("${patient.sql-log.sample-rate}") double sampleRate,
+                         @Value("${patient.sql-log.slow-threshold}") Duration slowThreshold,
+                         MeterRegistry registry) {
+        SqlLog sqlLog = new SqlLog(bufferSize, sampleRate, slowThreshold.toNanos());
+        FunctionCounter.builder("sql.log.written", sqlLog, SqlLog::written).register(registry);
+        FunctionCounter.builder("sql.log.dropped", sqlLog, SqlLog::dropped)
+                .description("Statements not logged because the ring buffer was full")
+                .register(registry);
+        Gauge.builder("sql.log.pending", sqlLog, SqlLog::pending).register(registry);
+        return sqlLog;
+    }
+
+    //static: los BeanPostProcessor se crean antes que el resto de beans. Se envuelve despues de la inicializacion
+    //para que spring.datasource.hikari.* ya este aplicado al HikariDataSource de PersistenceConfig
+    @Bean
+    public static BeanPostProcessor sqlLoggingDataSource(ObjectProvider<SqlLog> sqlLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlLoggingDataSource)) {
+                    return new SqlLoggingDataSource(dataSource, sqlLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
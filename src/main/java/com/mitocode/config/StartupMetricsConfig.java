@@ -0,0 +1,20 @@
+package com.mitocode.config;
+
+import com.mitocode.metrics.FirstRequestFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+//Tiempo hasta la primera solicitud (application.first.request.time en /actuator/metrics)
+@Configuration
+public class StartupMetricsConfig {
+
+    @Bean
+    public FilterRegistrationBean<FirstRequestFilter> firstRequestFilter(MeterRegistry registry) {
+        FilterRegistrationBean<FirstRequestFilter> registration = new FilterRegistrationBean<>(new FirstRequestFilter(registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
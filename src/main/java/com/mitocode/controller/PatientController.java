@@ -1,13 +1,43 @@
 package com.mitocode.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.mitocode.cache.PatientResponseCache;
+import com.mitocode.cache.PatientResponseCache.CachedResponse;
+import com.mitocode.config.ResponseFormats;
+import com.mitocode.dto.BatchResult;
+import com.mitocode.dto.ImportFormat;
+import com.mitocode.dto.ImportResult;
+import com.mitocode.dto.PatientView;
 import com.mitocode.model.Patient;
+import com.mitocode.service.IIdempotencyService;
+import com.mitocode.service.IPatientImportService;
 import com.mitocode.service.impl.PatientServiceImpl;
+import com.mitocode.util.PatientFields;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 //@RestController: esta notacion da inicio al API REST (COMUNICACION HTTP) -> verbos (GET, POST, PUT, DELETE)
 //la comunicacion es a traves de un endPoint
@@ -22,6 +52,14 @@ public class PatientController {
 
     //@Autowired
     private final PatientServiceImpl service; // = new PatientService();
+    private final IPatientImportService importService;
+    private final IIdempotencyService idempotencyService;
+    private final PatientResponseCache responseCache;
+    private final ResponseFormats formats;
+    private final ObjectMapper mapper;
+
+    @Value("${patient.export.timeout}")
+    private Duration exportTimeout;
 
     /*
     //comento el autowired y hago inyeccion de dependencias por constructor
@@ -30,22 +68,122 @@ public class PatientController {
     }*/
 
 
+    //Paginacion por cursor: GET /patients?size=50 -> GET /patients?cursor={next}&size=50 hasta que next sea null
+    //?fields=firstName,lastName: solo esas columnas (mas idPatient) se leen de la BD y se serializan
     @GetMapping
-    public ResponseEntity<List<Patient>> findAll(){
-        List<Patient> list = service.findAll();
+    public ResponseEntity<byte[]> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", defaultValue = "${patient.page.default-size}") int size,
+                                          @RequestParam(value = "fields", required = false) String fields,
+                                          HttpServletRequest request) throws IOException {
+        Set<String> selected = PatientFields.parse(fields);
 
         //Gano: poder controlar el estado de la respuesta HTTP
-        return ResponseEntity.ok(list);
+        return cached(request, () -> selected == null ? service.findPage(cursor, size) : service.findPage(cursor, size, selected), null);
+    }
+
+    //GET /patients?ids=1,2,3: varios pacientes en una sola consulta (params = "ids" la separa del listado paginado)
+    @GetMapping(params = "ids")
+    public ResponseEntity<byte[]> findByIds(@RequestParam("ids") List<Integer> ids,
+                                            @RequestParam(value = "fields", required = false) String fields,
+                                            HttpServletRequest request) throws IOException {
+        return cached(request, () -> findBatch(ids, fields), null);
+    }
+
+    //misma consulta con los ids en el body, para lotes que no entran en la URL
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult<?>> findByIdsPost(@RequestBody List<Integer> ids,
+                                                        @RequestParam(value = "fields", required = false) String fields){
+        return ResponseEntity.ok(findBatch(ids, fields));
+    }
+
+    private BatchResult<?> findBatch(List<Integer> ids, String fields){
+        Set<String> selected = PatientFields.parse(fields);
+        return selected == null ? service.findByIds(ids) : service.findByIds(ids, selected);
+    }
+
+    //GET /patients/search?q=4512 (prefijo de DNI/telefono) o ?q=jose perez (nombre, apellido, email)
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> search(@RequestParam("q") String q,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", defaultValue = "${patient.page.default-size}") int size,
+                                         @RequestParam(value = "fields", required = false) String fields,
+                                         HttpServletRequest request) throws IOException {
+        Set<String> selected = PatientFields.parse(fields);
+        return cached(request, () -> selected == null ? service.search(q, cursor, size) : service.search(q, cursor, size, selected), null);
+    }
+
+    //Exportacion completa en NDJSON (un JSON por linea) escrita a medida que llegan las filas de Postgres.
+    //WebAsyncTask en lugar de StreamingResponseBody para darle su propio timeout (patient.export.timeout)
+    //sin quitar el global de spring.mvc.async.request-timeout al resto de endpoints async
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public WebAsyncTask<Void> export(HttpServletResponse response){
+        response.setContentType("application/x-ndjson");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            OutputStream out = response.getOutputStream();
+            //AUTO_CLOSE_TARGET desactivado: el stream de la respuesta lo cierra el contenedor
+            try (SequenceWriter writer = mapper.writerFor(PatientView.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(out)) {
+                service.forEachPatient(patient -> {
+                    try {
+                        writer.write(patient);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            out.write('\n');
+            out.flush();
+            return null;
+        });
     }
 
+    //El ETag del detalle completo sale de la version de la fila (@Version): "{id}-{version}"
     @GetMapping("/{id}")
-    public Patient findById(@PathVariable("id") Integer id){
-        return service.findById(id);
+    public ResponseEntity<byte[]> findById(@PathVariable("id") Integer id,
+                                           @RequestParam(value = "fields", required = false) String fields,
+                                           HttpServletRequest request) throws IOException {
+        Set<String> selected = PatientFields.parse(fields);
+        if (selected != null) {
+            return cached(request, () -> service.findById(id, selected), null);
+        }
+        return cached(request, () -> service.findById(id), body -> {
+            Patient patient = (Patient) body;
+            return patient.getIdPatient() == null ? null : patient.getIdPatient() + "-" + patient.getVersion();
+        });
+    }
+
+    //Recepcion: identificacion del paciente por DNI usando el indice en memoria
+    @GetMapping("/dni/{dni}")
+    public Patient findByDni(@PathVariable("dni") String dni){
+        return service.findByDni(dni);
     }
 
+    //Con el header Idempotency-Key, un reintento (o un duplicado concurrente) recibe la respuesta de la primera
+    //solicitud sin volver a insertar; el header Idempotent-Replayed lo indica
     @PostMapping
-    public Patient save(@RequestBody Patient patient){
-        return service.save(patient);
+    public ResponseEntity<?> save(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                  @RequestBody Patient patient) throws IOException {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(service.save(patient));
+        }
+
+        String requestHash = DigestUtils.md5DigestAsHex(mapper.writeValueAsBytes(patient));
+        IIdempotencyService.Result result = idempotencyService.execute("patients", idempotencyKey, requestHash,
+                () -> service.save(patient));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(result.body());
+    }
+
+    //Importacion masiva: el cuerpo se procesa a medida que llega (no se guarda completo en memoria)
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importPatients(@RequestHeader("Content-Type") MediaType contentType,
+                                                       InputStream body) throws IOException {
+        ImportFormat format = MediaType.parseMediaType("text/csv").includes(contentType) ? ImportFormat.CSV : ImportFormat.NDJSON;
+        return ResponseEntity.ok(importService.importPatients(body, format));
     }
 
     //mapeamos el id en la clase Patient para que el metodo PUT sepa que tiene que actualizar un registro
@@ -55,11 +193,43 @@ public class PatientController {
         return service.update(id ,patient);
     }
 
+    //PATCH /patients/{id} {"phone": "987654321", "version": 3}: solo cambia los atributos enviados.
+    //Con "version" responde 409 si otro cliente modifico el registro antes
+    @PatchMapping("/{id}")
+    public Patient patch(@PathVariable("id") Integer id, @RequestBody Map<String, Object> changes){
+        return service.patch(id, changes);
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable("id") Integer id){
         service.delete(id);
     }
 
+    //Respuesta ya serializada desde PatientResponseCache (o serializada una vez y guardada). Si el cliente envia
+    //If-None-Match con el mismo ETag, Spring responde 304 sin cuerpo (HttpEntityMethodProcessor compara el ETag).
+    //versionTag: ETag derivado de la version de la fila; si es null se usa el hash del contenido.
+    //El formato (JSON, CBOR, Smile) sale del header Accept y forma parte de la clave y del ETag
+    private ResponseEntity<byte[]> cached(HttpServletRequest request, Supplier<Object> loader,
+                                         Function<Object, String> versionTag) throws IOException {
+        ResponseFormats.Format format = formats.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        String key = format.name() + ':' + request.getRequestURI() + '?' + Objects.toString(request.getQueryString(), "");
+        CachedResponse response = responseCache.get(key);
+        if (response == null) {
+            long generation = responseCache.generation();
+            Object body = loader.get();
+            byte[] bytes = format.mapper().writeValueAsBytes(body);
+            String etag = versionTag == null ? null : versionTag.apply(body);
+            etag = (etag != null ? etag : DigestUtils.md5DigestAsHex(bytes)) + '-' + format.name();
+            response = new CachedResponse(etag, bytes);
+            responseCache.put(key, response, generation);
+        }
+        return ResponseEntity.ok()
+                .eTag(response.etag())
+                .contentType(format.mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(response.body());
+    }
+
     /*
     @GetMapping
     public Patient save(){
@@ -0,0 +1,57 @@
+package com.mitocode.controller;
+
+import com.mitocode.config.AsyncTimeoutConfig;
+import com.mitocode.model.Patient;
+import com.mitocode.service.IPatientReactiveService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+//Espejo no bloqueante de PatientController sobre R2DBC. Spring MVC se suscribe al Flux/Mono y libera el hilo de
+//Tomcat mientras se espera a la BD: miles de clientes lentos no ocupan un hilo cada uno
+@RestController
+@RequestMapping("${patient.reactive.controller.path}")
+@RequiredArgsConstructor
+public class PatientReactiveController {
+
+    private final IPatientReactiveService service;
+
+    @Value("${patient.reactive.stream-timeout}")
+    private Duration streamTimeout;
+
+    //application/x-ndjson (por defecto): cada paciente se escribe apenas llega de Postgres, con contrapresion.
+    //Con Accept: application/json se responde un arreglo (se junta la lista completa antes de escribir)
+    //Recorre toda la tabla: usa patient.reactive.stream-timeout y no el timeout global de spring.mvc.async
+    @GetMapping(produces = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Patient> findAll(HttpServletRequest request){
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, streamTimeout.toMillis());
+        return service.findAll();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Patient> findById(@PathVariable("id") Integer id){
+        return service.findById(id);
+    }
+
+    @PostMapping
+    public Mono<Patient> save(@RequestBody Patient patient){
+        return service.save(patient);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<Patient> update(@PathVariable("id") Integer id, @RequestBody Patient patient){
+        patient.setIdPatient(id);
+        return service.update(id, patient);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> delete(@PathVariable("id") Integer id){
+        return service.delete(id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.mitocode.dto;
+
+import java.util.List;
+
+//content respeta el orden de los ids solicitados; missing son los ids que no existen
+public record BatchResult<T>(List<T> content, List<Integer> missing) {
+}
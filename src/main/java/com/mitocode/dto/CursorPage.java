@@ -0,0 +1,7 @@
+package com.mitocode.dto;
+
+import java.util.List;
+
+//Pagina de resultados por cursor (keyset). next es opaco para el cliente y es null cuando no hay mas registros
+public record CursorPage<T>(List<T> content, String next, int size) {
+}
@@ -0,0 +1,5 @@
+package com.mitocode.dto;
+
+//line: numero de linea en el archivo subido (la cabecera del CSV es la linea 1)
+public record ImportError(long line, String dni, String message) {
+}
@@ -0,0 +1,6 @@
+package com.mitocode.dto;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,7 @@
+package com.mitocode.dto;
+
+import java.util.List;
+
+//errors contiene como maximo patient.import.max-reported-errors elementos; errorsTruncated indica si hubo mas
+public record ImportResult(long received, long imported, long rejected, List<ImportError> errors, boolean errorsTruncated) {
+}
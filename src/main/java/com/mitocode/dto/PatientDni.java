@@ -0,0 +1,4 @@
+package com.mitocode.dto;
+
+public record PatientDni(Integer idPatient, String dni) {
+}
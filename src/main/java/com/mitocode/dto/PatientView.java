@@ -0,0 +1,7 @@
+package com.mitocode.dto;
+
+//Proyeccion de solo lectura de Patient para los listados: no es una entidad, Hibernate no la registra en el
+//contexto de persistencia ni guarda una copia para dirty checking
+public record PatientView(Integer idPatient, String firstName, String lastName, String dni,
+                          String address, String phone, String email, Long version) {
+}
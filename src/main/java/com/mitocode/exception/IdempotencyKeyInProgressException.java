@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//La primera solicitud con el mismo Idempotency-Key sigue en ejecucion (excedio la espera)
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
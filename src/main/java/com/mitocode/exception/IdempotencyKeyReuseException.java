@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//Se reutilizo un Idempotency-Key con un cuerpo distinto al de la primera solicitud
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//Lote vacio o con mas ids de los permitidos (patient.batch.max-size)
+public class InvalidBatchException extends RuntimeException {
+
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//Unchecked: el cliente envio un cursor que no fue generado por el API
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//?fields= con un atributo que no existe en Patient
+public class InvalidFieldsException extends RuntimeException {
+
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//Idempotency-Key vacio o demasiado largo
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//El archivo de importacion no se puede procesar (cabecera CSV incompleta, etc.)
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.mitocode.exception;
+
+//PATCH con un atributo desconocido o un valor que no cumple las reglas de la columna
+public class InvalidPatchException extends RuntimeException {
+
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,287 @@
+package com.mitocode.generator;
+
+import com.mitocode.model.IdAllocation;
+import com.mitocode.util.CsvLine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Genera pacientes, medicos, especialidades, examenes, consultas, detalles y examenes por consulta, y los carga con
+//COPY en paralelo (un bloque de pacientes por tarea, cada bloque en su propia transaccion).
+//Determinista: cada bloque usa sus propios SplittableRandom derivados de la semilla, asi el resultado no depende
+//del orden en que terminan los hilos. Los ids se asignan a continuacion del MAX(id) actual de cada tabla y al final
+//las secuencias quedan en MAX(id) + 50, igual que en db/migration/V1
+@Slf4j
+@Component
+@Profile("generate")
+@RequiredArgsConstructor
+public class DataGenerator {
+
+    private static final String COPY_PATIENT = "COPY patient (id_patient, first_name, last_name, dni, address, phone, email, version) FROM STDIN (FORMAT csv)";
+    private static final String COPY_MEDIC = "COPY medic (id_medic, first_name, last_name, cmp, photo_url) FROM STDIN (FORMAT csv)";
+    private static final String COPY_SPECIALTY = "COPY specialty (id_specialty, name, description) FROM STDIN (FORMAT csv)";
+    private static final String COPY_EXAM = "COPY exam (id_exam, name, description) FROM STDIN (FORMAT csv)";
+    private static final String COPY_CONSULT = "COPY consult (id_consult, id_patient, id_medic, id_specialty, num_consult, consult_date) FROM STDIN (FORMAT csv)";
+    private static final String COPY_DETAIL = "COPY consult_detail (id_detail, id_consult, diagnosis, treatment) FROM STDIN (FORMAT csv)";
+    private static final String COPY_CONSULT_EXAM = "COPY consult_exam (id_consult, id_exam) FROM STDIN (FORMAT csv)";
+
+    //flujos independientes por bloque: cantidades (ids) y contenido (valores)
+    private static final long COUNTS_STREAM = 1;
+    private static final long CONTENT_STREAM = 2;
+    private static final int MAX_DETAILS = 3;
+    private static final int MAX_EXAMS = 2;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${generator.patients}")
+    private int patients;
+
+    @Value("${generator.medics}")
+    private int medics;
+
+    @Value("${generator.seed}")
+    private long seed;
+
+    @Value("${generator.chunk-size}")
+    private int chunkSize;
+
+    @Value("${generator.threads}")
+    private int threads;
+
+    @Value("${generator.consults.alpha}")
+    private double consultsAlpha;
+
+    @Value("${generator.consults.max-per-patient}")
+    private int maxConsultsPerPatient;
+
+    //fechas ISO (2021-01-01); fijas para que la misma semilla de las mismas fechas en cualquier dia
+    @Value("${generator.consults.from}")
+    private String fromDate;
+
+    @Value("${generator.consults.until}")
+    private String untilDate;
+
+    //primer id libre de cada tabla
+    private record Bases(int patient, int medic, int specialty, int exam, int consult, int detail) {
+    }
+
+    //cantidad de consultas y detalles de un bloque, para calcular donde empiezan sus ids
+    private record ChunkCounts(long consults, long details) {
+    }
+
+    public void generate() throws Exception {
+        long start = System.nanoTime();
+        Bases bases = new Bases(nextId("patient", "id_patient"), nextId("medic", "id_medic"),
+                nextId("specialty", "id_specialty"), nextId("exam", "id_exam"),
+                nextId("consult", "id_consult"), nextId("consult_detail", "id_detail"));
+
+        loadReferenceData(bases);
+
+        int chunks = (patients + chunkSize - 1) / chunkSize;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            //1) solo las cantidades (rapido): da el primer id de consulta y de detalle de cada bloque
+            List<Future<ChunkCounts>> counted = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int c = chunk;
+                counted.add(pool.submit(() -> count(c)));
+            }
+            long[] consultStart = new long[chunks];
+            long[] detailStart = new long[chunks];
+            long consults = bases.consult();
+            long details = bases.detail();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                consultStart[chunk] = consults;
+                detailStart[chunk] = details;
+                ChunkCounts counts = counted.get(chunk).get();
+                consults += counts.consults();
+                details += counts.details();
+            }
+            if (consults > Integer.MAX_VALUE || details > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Too many rows for integer ids: " + consults + " consults, " + details + " details");
+            }
+
+            //2) generacion y COPY de cada bloque en paralelo
+            AtomicLong done = new AtomicLong();
+            List<Future<?>> loads = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int c = chunk;
+                loads.add(pool.submit(() -> {
+                    load(c, bases, consultStart[c], detailStart[c]);
+                    long finished = done.incrementAndGet();
+                    if (finished % 10 == 0 || finished == chunks) {
+                        log.info("Generated {}/{} chunks", finished, chunks);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> load : loads) {
+                load.get();
+            }
+
+            log.info("Generated {} patients, {} medics, {} consults, {} consult details in {} s (seed {})",
+                    patients, medics, consults - bases.consult(), details - bases.detail(),
+                    (System.nanoTime() - start) / 1_000_000_000, seed);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (String[] table : new String[][]{{"patient", "id_patient"}, {"medic", "id_medic"},
+                {"specialty", "id_specialty"}, {"exam", "id_exam"}, {"consult", "id_consult"},
+                {"consult_detail", "id_detail"}}) {
+            jdbcTemplate.execute("SELECT setval('" + table[0] + "_seq', COALESCE((SELECT MAX(" + table[1] + ") FROM "
+                    + table[0] + "), 0) + " + IdAllocation.SIZE + ", false)");
+        }
+        jdbcTemplate.execute("ANALYZE patient, medic, specialty, exam, consult, consult_detail, consult_exam");
+    }
+
+    private int nextId(String table, String column) {
+        Integer max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table, Integer.class);
+        return max + 1;
+    }
+
+    //especialidades y examenes de las listas fijas; medicos con su especialidad = indice % especialidades
+    private void loadReferenceData(Bases bases) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder specialties = new StringBuilder();
+        for (int i = 0; i < SyntheticData.SPECIALTIES.size(); i++) {
+            row(specialties, bases.specialty() + i, SyntheticData.SPECIALTIES.get(i)[0], SyntheticData.SPECIALTIES.get(i)[1]);
+        }
+        StringBuilder exams = new StringBuilder();
+        for (int i = 0; i < SyntheticData.EXAMS.size(); i++) {
+            row(exams, bases.exam() + i, SyntheticData.EXAMS.get(i)[0], SyntheticData.EXAMS.get(i)[1]);
+        }
+        StringBuilder medicRows = new StringBuilder();
+        for (int i = 0; i < medics; i++) {
+            row(medicRows, bases.medic() + i, SyntheticData.pick(random, SyntheticData.FIRST_NAMES),
+                    SyntheticData.pick(random, SyntheticData.LAST_NAMES), SyntheticData.cmp(bases.medic() + i), null);
+        }
+
+        try (Connection con = dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            copy(con, COPY_SPECIALTY, specialties);
+            copy(con, COPY_EXAM, exams);
+            copy(con, COPY_MEDIC, medicRows);
+            con.commit();
+        }
+    }
+
+    private ChunkCounts count(int chunk) {
+        SplittableRandom counts = random(chunk, COUNTS_STREAM);
+        long consults = 0;
+        long details = 0;
+        for (int i = 0; i < patientsIn(chunk); i++) {
+            int k = SyntheticData.consultsPerPatient(counts, consultsAlpha, maxConsultsPerPatient);
+            consults += k;
+            for (int j = 0; j < k; j++) {
+                details += 1 + counts.nextInt(MAX_DETAILS);
+            }
+        }
+        return new ChunkCounts(consults, details);
+    }
+
+    //debe consumir el flujo de cantidades exactamente igual que count()
+    private void load(int chunk, Bases bases, long firstConsult, long firstDetail) throws SQLException {
+        SplittableRandom counts = random(chunk, COUNTS_STREAM);
+        SplittableRandom content = random(chunk, CONTENT_STREAM);
+        LocalDate from = LocalDate.parse(fromDate);
+        LocalDate until = LocalDate.parse(untilDate);
+        int specialtyCount = SyntheticData.SPECIALTIES.size();
+        int examCount = SyntheticData.EXAMS.size();
+
+        StringBuilder patientRows = new StringBuilder();
+        StringBuilder consultRows = new StringBuilder();
+        StringBuilder detailRows = new StringBuilder();
+        StringBuilder examRows = new StringBuilder();
+        long consultId = firstConsult;
+        long detailId = firstDetail;
+
+        for (int i = 0; i < patientsIn(chunk); i++) {
+            long patientNumber = (long) chunk * chunkSize + i;
+            int patientId = (int) (bases.patient() + patientNumber);
+            String firstName = SyntheticData.pick(content, SyntheticData.FIRST_NAMES);
+            String lastName = SyntheticData.pick(content, SyntheticData.LAST_NAMES) + " "
+                    + SyntheticData.pick(content, SyntheticData.LAST_NAMES);
+            row(patientRows, patientId, firstName, lastName, SyntheticData.dni(patientId),
+                    SyntheticData.address(content), SyntheticData.phone(content),
+                    SyntheticData.email(content, firstName, lastName.substring(0, lastName.indexOf(' ')), patientNumber), "0");
+
+            int k = SyntheticData.consultsPerPatient(counts, consultsAlpha, maxConsultsPerPatient);
+            for (int j = 0; j < k; j++) {
+                //los medicos mas solicitados atienden mas consultas; la especialidad es la del medico
+                int medic = SyntheticData.skewed(content, medics);
+                row(consultRows, consultId, patientId, bases.medic() + medic, bases.specialty() + medic % specialtyCount,
+                        String.format("%03d", (j + 1) % 1000), SyntheticData.consultDate(content, from, until));
+
+                int detailCount = 1 + counts.nextInt(MAX_DETAILS);
+                for (int d = 0; d < detailCount; d++) {
+                    row(detailRows, detailId++, consultId, SyntheticData.pick(content, SyntheticData.DIAGNOSES),
+                            SyntheticData.pick(content, SyntheticData.TREATMENTS));
+                }
+                int exams = content.nextInt(MAX_EXAMS + 1);
+                int firstExam = content.nextInt(examCount);
+                for (int e = 0; e < exams; e++) {
+                    row(examRows, consultId, bases.exam() + (firstExam + e) % examCount);
+                }
+                consultId++;
+            }
+        }
+
+        try (Connection con = dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            copy(con, COPY_PATIENT, patientRows);
+            copy(con, COPY_CONSULT, consultRows);
+            copy(con, COPY_DETAIL, detailRows);
+            copy(con, COPY_CONSULT_EXAM, examRows);
+            con.commit();
+        }
+    }
+
+    private int patientsIn(int chunk) {
+        return Math.min(chunkSize, patients - chunk * chunkSize);
+    }
+
+    private SplittableRandom random(int chunk, long stream) {
+        return new SplittableRandom(seed ^ (chunk * 0x9E3779B97F4A7C15L) ^ (stream * 0xC2B2AE3D27D4EB4FL));
+    }
+
+    private static void row(StringBuilder sb, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            CsvLine.appendField(sb, values[i] == null ? null : values[i].toString());
+        }
+        sb.append('\n');
+    }
+
+    private static void copy(Connection con, String sql, StringBuilder rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            con.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(rows.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY failed: " + sql, e);
+        }
+    }
+}
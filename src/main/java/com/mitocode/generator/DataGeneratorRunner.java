@@ -0,0 +1,35 @@
+package com.mitocode.generator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+//Modo CLI: java -jar mediapp-backend.jar --spring.profiles.active=generate --generator.patients=5000000 --generator.seed=7
+//(ver application-generate.properties). Genera los datos y termina el proceso; no levanta el servidor web
+@Slf4j
+@Component
+@Profile("generate")
+@RequiredArgsConstructor
+public class DataGeneratorRunner implements ApplicationRunner {
+
+    private final DataGenerator generator;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            generator.generate();
+        } catch (Exception e) {
+            log.error("Data generation failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
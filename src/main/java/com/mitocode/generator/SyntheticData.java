@@ -0,0 +1,132 @@
+package com.mitocode.generator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+//Valores y distribuciones para los datos sinteticos. Todo sale de un SplittableRandom recibido, asi la misma
+//semilla genera exactamente los mismos datos. Los valores cumplen las restricciones de las columnas del modelo
+final class SyntheticData {
+
+    static final List<String> FIRST_NAMES = List.of("Jose", "Maria", "Juan", "Rosa", "Luis", "Ana", "Carlos", "Carmen",
+            "Jorge", "Elena", "Miguel", "Lucia", "Pedro", "Sofia", "Manuel", "Isabel", "Victor", "Patricia", "Cesar",
+            "Teresa", "Jesus", "Gabriela", "Fernando", "Silvia", "Ricardo", "Diana", "Raul", "Claudia", "Alberto",
+            "Veronica", "Oscar", "Milagros", "Eduardo", "Paola", "Javier", "Andrea", "Walter", "Flor", "Hugo", "Luz");
+
+    static final List<String> LAST_NAMES = List.of("Quispe", "Flores", "Sanchez", "Rodriguez", "Garcia", "Huaman",
+            "Rojas", "Mamani", "Chavez", "Vasquez", "Ramos", "Mendoza", "Torres", "Diaz", "Lopez", "Castillo",
+            "Gonzales", "Ramirez", "Espinoza", "Perez", "Vargas", "Condori", "Fernandez", "Gutierrez", "Cruz",
+            "Romero", "Ruiz", "Salazar", "Cardenas", "Silva", "Reyes", "Morales", "Herrera", "Medina", "Aguilar",
+            "Castro", "Jimenez", "Cordova", "Paredes", "Ccori");
+
+    static final List<String> STREETS = List.of("Av. Arequipa", "Av. Brasil", "Jr. de la Union", "Av. Javier Prado",
+            "Av. La Marina", "Calle Los Olivos", "Av. Universitaria", "Jr. Ica", "Av. Grau", "Calle Las Begonias",
+            "Av. Tupac Amaru", "Av. Angamos", "Jr. Huallaga", "Av. Colonial", "Calle Schell");
+
+    static final List<String> DISTRICTS = List.of("Lima", "Miraflores", "San Isidro", "Surco", "Los Olivos",
+            "San Juan de Lurigancho", "Comas", "Ate", "La Molina", "Callao", "Chorrillos", "Jesus Maria");
+
+    static final List<String> EMAIL_DOMAINS = List.of("gmail.com", "hotmail.com", "outlook.com", "yahoo.com", "mail.pe");
+
+    //{nombre, descripcion}
+    static final List<String[]> SPECIALTIES = List.of(
+            new String[]{"Medicina General", "Atencion primaria y derivacion"},
+            new String[]{"Pediatria", "Atencion de ninos y adolescentes"},
+            new String[]{"Cardiologia", "Enfermedades del corazon y sistema circulatorio"},
+            new String[]{"Dermatologia", "Enfermedades de la piel"},
+            new String[]{"Ginecologia", "Salud del aparato reproductor femenino"},
+            new String[]{"Traumatologia", "Lesiones del aparato locomotor"},
+            new String[]{"Oftalmologia", "Enfermedades de los ojos"},
+            new String[]{"Otorrinolaringologia", "Oido, nariz y garganta"},
+            new String[]{"Neurologia", "Enfermedades del sistema nervioso"},
+            new String[]{"Gastroenterologia", "Aparato digestivo"},
+            new String[]{"Endocrinologia", "Glandulas y hormonas"},
+            new String[]{"Neumologia", "Aparato respiratorio"},
+            new String[]{"Urologia", "Aparato urinario"},
+            new String[]{"Psiquiatria", "Salud mental"},
+            new String[]{"Nutricion", "Alimentacion y dieta"});
+
+    static final List<String[]> EXAMS = List.of(
+            new String[]{"Hemograma completo", "Recuento de celulas sanguineas"},
+            new String[]{"Glucosa en ayunas", "Nivel de glucosa en sangre"},
+            new String[]{"Perfil lipidico", "Colesterol total, HDL, LDL y trigliceridos"},
+            new String[]{"Examen de orina", "Analisis fisico, quimico y microscopico"},
+            new String[]{"Radiografia de torax", "Imagen de pulmones y corazon"},
+            new String[]{"Electrocardiograma", "Actividad electrica del corazon"},
+            new String[]{"Ecografia abdominal", "Imagen de organos abdominales"},
+            new String[]{"Perfil hepatico", "Funcion del higado"},
+            new String[]{"Creatinina", "Funcion renal"},
+            new String[]{"TSH", "Funcion tiroidea"},
+            new String[]{"Hemoglobina glicosilada", "Control de glucosa de los ultimos meses"},
+            new String[]{"Tomografia", "Imagen por cortes"},
+            new String[]{"Resonancia magnetica", "Imagen de tejidos blandos"},
+            new String[]{"Espirometria", "Capacidad pulmonar"},
+            new String[]{"Prueba de esfuerzo", "Respuesta del corazon al ejercicio"});
+
+    static final List<String> DIAGNOSES = List.of("Resfriado comun", "Faringitis aguda", "Gastritis", "Hipertension arterial",
+            "Diabetes mellitus tipo 2", "Lumbalgia", "Infeccion urinaria", "Dermatitis atopica", "Migrana",
+            "Ansiedad", "Asma bronquial", "Anemia ferropenica", "Conjuntivitis", "Otitis media", "Sobrepeso",
+            "Esguince de tobillo", "Rinitis alergica", "Hipotiroidismo", "Control prenatal", "Control de nino sano");
+
+    static final List<String> TREATMENTS = List.of("Reposo relativo e hidratacion abundante por 3 dias",
+            "Paracetamol 500 mg cada 8 horas por 5 dias", "Omeprazol 20 mg en ayunas por 14 dias y dieta blanda",
+            "Losartan 50 mg cada 24 horas, control de presion semanal",
+            "Metformina 850 mg con el almuerzo, dieta y actividad fisica",
+            "Ibuprofeno 400 mg cada 8 horas y fisioterapia", "Ciprofloxacino 500 mg cada 12 horas por 7 dias",
+            "Crema hidratante y corticoide topico por 10 dias", "Sulfato ferroso 300 mg diario por 3 meses",
+            "Salbutamol inhalado segun necesidad", "Loratadina 10 mg diario por 15 dias",
+            "Levotiroxina 50 ug en ayunas, control de TSH en 6 semanas", "Control en 30 dias con resultados de examenes");
+
+    private SyntheticData() {
+    }
+
+    //indice sesgado hacia el inicio de la lista: unos pocos valores muy frecuentes y una cola de raros
+    static int skewed(SplittableRandom random, int size) {
+        double u = random.nextDouble();
+        return (int) (size * u * u);
+    }
+
+    static <T> T pick(SplittableRandom random, List<T> values) {
+        return values.get(skewed(random, values.size()));
+    }
+
+    //Cantidad de consultas por paciente: Pareto discreta (la mayoria pocas, algunos pacientes cronicos muchas)
+    static int consultsPerPatient(SplittableRandom random, double alpha, int max) {
+        double pareto = Math.pow(1 - random.nextDouble(), -1 / alpha);
+        return (int) Math.min(max, Math.floor(pareto));
+    }
+
+    //DNI unico por id de paciente (no por numero dentro de la corrida: una segunda corrida o una BD ya sembrada
+    //repetirian los DNIs). 7919 es coprimo con 10^8, asi la multiplicacion es una permutacion
+    static String dni(int patientId) {
+        return String.format("%08d", ((long) patientId * 7919 + 10_000_000) % 100_000_000);
+    }
+
+    //CMP unico por id de medico, por la misma razon
+    static String cmp(int medicId) {
+        return String.format("%06d", medicId);
+    }
+
+    static String phone(SplittableRandom random) {
+        return "9" + String.format("%08d", random.nextInt(100_000_000));
+    }
+
+    static String email(SplittableRandom random, String firstName, String lastName, long patientNumber) {
+        return (firstName + "." + lastName + patientNumber).toLowerCase() + "@" + pick(random, EMAIL_DOMAINS);
+    }
+
+    static String address(SplittableRandom random) {
+        return pick(random, STREETS) + " " + (100 + random.nextInt(4900)) + ", " + pick(random, DISTRICTS);
+    }
+
+    //dias laborables en horario de atencion (8:00 - 18:00, turnos de 15 minutos) dentro de [from, until)
+    static LocalDateTime consultDate(SplittableRandom random, LocalDate from, LocalDate until) {
+        long days = until.toEpochDay() - from.toEpochDay();
+        LocalDate day = from.plusDays(random.nextLong(days));
+        if (day.getDayOfWeek().getValue() == 7) {
+            day = day.minusDays(1);
+        }
+        return day.atTime(8 + random.nextInt(10), 15 * random.nextInt(4));
+    }
+}
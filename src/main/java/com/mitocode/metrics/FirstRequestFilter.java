@@ -0,0 +1,47 @@
+package com.mitocode.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//application.first.request.time: ms desde el inicio de la JVM hasta responder la primera solicitud. Complementa
+//application.started.time / application.ready.time de Boot, que no incluyen la primera carga de clases de MVC,
+//Jackson e Hibernate en el camino de la solicitud (lo que mejoran AOT y CDS)
+@Slf4j
+public class FirstRequestFilter extends OncePerRequestFilter {
+
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public FirstRequestFilter(MeterRegistry registry) {
+        TimeGauge.builder("application.first.request.time", firstRequestMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from JVM start until the first request was served")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            //despues de la primera solicitud solo queda esta lectura
+            if (firstRequestMillis.get() < 0) {
+                long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                if (firstRequestMillis.compareAndSet(-1, millis)) {
+                    log.info("First request ({} {}) served {} ms after JVM start",
+                            request.getMethod(), request.getRequestURI(), millis);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mitocode.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//patient.layer.latency{layer=controller|service, class, method}: p50/p99/p999 y cantidad de llamadas por metodo.
+//La capa repository la mide Spring Data (spring.data.repository.invocations). Envuelve al cache y a la transaccion
+//(HIGHEST_PRECEDENCE), asi un acierto del cache de entidades tambien cuenta como llamada al servicio
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LayerTimingAspect {
+
+    private final MeterRegistry registry;
+    //el Timer se arma una vez por metodo; en cada llamada solo hay un get sin bloqueo
+    private final ConcurrentHashMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public LayerTimingAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.mitocode.controller.PatientController.*(..))")
+    public Object controller(ProceedingJoinPoint call) throws Throwable {
+        return time(call, "controller");
+    }
+
+    @Around("execution(* com.mitocode.service.IPatientService.*(..))")
+    public Object service(ProceedingJoinPoint call) throws Throwable {
+        return time(call, "service");
+    }
+
+    private Object time(ProceedingJoinPoint call, String layer) throws Throwable {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, m -> timer(layer, m));
+        }
+
+        long start = System.nanoTime();
+        try {
+            return call.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String layer, Method method) {
+        return Timer.builder("patient.layer.latency")
+                .tag("layer", layer)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                //los metodos sobrecargados (findById con y sin fields) se distinguen por la cantidad de parametros
+                .tag("method", method.getName() + "/" + method.getParameterCount())
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(registry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.mitocode.metrics;
+
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.util.concurrent.TimeUnit;
+
+//Acumula, en el hilo de la solicitud, el tiempo y la cantidad de llamadas a repositorios Spring Data.
+//RequestDbTimeFilter abre y cierra la cuenta; fuera de una solicitud (jobs, hilos async) no se acumula nada
+public final class RequestDbTime implements RepositoryMethodInvocationListener {
+
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    //{nanos, llamadas}
+    static long[] start() {
+        long[] totals = new long[2];
+        CURRENT.set(totals);
+        return totals;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        long[] totals = CURRENT.get();
+        if (totals != null) {
+            totals[0] += invocation.getDuration(TimeUnit.NANOSECONDS);
+            totals[1]++;
+        }
+    }
+}
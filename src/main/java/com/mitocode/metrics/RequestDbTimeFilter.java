@@ -0,0 +1,66 @@
+package com.mitocode.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//patient.request.db.time{method, uri}: tiempo en repositorios por solicitud; patient.request.db.calls: cuantas
+//llamadas hizo. uri es el patron del endpoint (/patients/{id}), no la URL, para no crear un meter por id
+public class RequestDbTimeFilter extends OncePerRequestFilter {
+
+    private record Meters(Timer time, DistributionSummary calls) {
+    }
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public RequestDbTimeFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long[] totals = RequestDbTime.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDbTime.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                Meters m = meters(request.getMethod(), Objects.toString(pattern));
+                m.time().record(totals[0], TimeUnit.NANOSECONDS);
+                m.calls().record(totals[1]);
+            }
+        }
+    }
+
+    private Meters meters(String method, String uri) {
+        String key = method + ' ' + uri;
+        Meters m = meters.get(key);
+        if (m == null) {
+            m = meters.computeIfAbsent(key, k -> new Meters(
+                    Timer.builder("patient.request.db.time")
+                            .tag("method", method)
+                            .tag("uri", uri)
+                            .publishPercentiles(0.5, 0.99, 0.999)
+                            .register(registry),
+                    DistributionSummary.builder("patient.request.db.calls")
+                            .tag("method", method)
+                            .tag("uri", uri)
+                            .register(registry)));
+        }
+        return m;
+    }
+}
@@ -0,0 +1,28 @@
+package com.mitocode.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+//Modo CLI: java -jar mediapp-backend.jar --spring.profiles.active=migrate (ver application-migrate.properties).
+//Flyway migra al crear el contexto (antes que JPA, que luego valida el esquema); aqui solo se termina el proceso.
+//Si la migracion o la validacion fallan, el contexto no inicia y el proceso sale con codigo distinto de 0
+@Slf4j
+@Component
+@Profile("migrate")
+@RequiredArgsConstructor
+public class MigrationRunner implements ApplicationRunner {
+
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Schema migrated and validated");
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
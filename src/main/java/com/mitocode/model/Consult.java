@@ -1,5 +1,6 @@
 package com.mitocode.model;
 
+import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,7 +18,8 @@ import java.util.List;
 public class Consult {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consult_seq")
+    @SequenceGenerator(name = "consult_seq", sequenceName = "consult_seq", allocationSize = IdAllocation.SIZE)
     @EqualsAndHashCode.Include
     private Integer idConsult;
 
@@ -39,6 +41,7 @@ public class Consult {
     @Column(nullable = false)
     private LocalDateTime consultDate;
 
+    @JsonManagedReference //la referencia inversa (ConsultDetail.consult) no se serializa, evita el ciclo
     @OneToMany(mappedBy = "consult", cascade = { CascadeType.ALL}, orphanRemoval = true)//, fetch = FetchType.EAGER)
     private List<ConsultDetail> details;
 }
@@ -1,5 +1,6 @@
 package com.mitocode.model;
 
+import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,9 +15,11 @@ import lombok.NoArgsConstructor;
 public class ConsultDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consult_detail_seq")
+    @SequenceGenerator(name = "consult_detail_seq", sequenceName = "consult_detail_seq", allocationSize = IdAllocation.SIZE)
     private Integer idDetail;
 
+    @JsonBackReference
     @ManyToOne //FK
     @JoinColumn(name = "id_consult", nullable = false, foreignKey = @ForeignKey(name = "FK_DETAIL_CONSULT"))
     private Consult consult;
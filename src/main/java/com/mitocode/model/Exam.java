@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class Exam {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exam_seq")
+    @SequenceGenerator(name = "exam_seq", sequenceName = "exam_seq", allocationSize = IdAllocation.SIZE)
     @EqualsAndHashCode.Include
     private Integer idExam;
 
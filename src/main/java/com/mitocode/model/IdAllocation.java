@@ -0,0 +1,11 @@
+package com.mitocode.model;
+
+//Tamaño del bloque de ids que Hibernate reserva por cada nextval (optimizador pooled).
+//Debe coincidir con el INCREMENT BY de las secuencias en db/migration, si se cambia aqui hay que migrar las secuencias
+public final class IdAllocation {
+
+    public static final int SIZE = 50;
+
+    private IdAllocation() {
+    }
+}
@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class Medic {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medic_seq")
+    @SequenceGenerator(name = "medic_seq", sequenceName = "medic_seq", allocationSize = IdAllocation.SIZE)
     @EqualsAndHashCode.Include
     private Integer idMedic;
 
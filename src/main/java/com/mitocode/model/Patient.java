@@ -2,6 +2,7 @@ package com.mitocode.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 import java.util.Objects;
@@ -17,10 +18,13 @@ import java.util.Objects;
 @Entity
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 //@Table(name = "tbl_patient", schema = "sistemas") -> para definir el nombre de la tabla
+@Table(indexes = @Index(name = "idx_patient_dni", columnList = "dni"))
+@DynamicUpdate //el UPDATE solo incluye las columnas que cambiaron
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", allocationSize = IdAllocation.SIZE)
     @EqualsAndHashCode.Include
     private Integer idPatient;
 
@@ -41,4 +45,9 @@ public class Patient {
 
     @Column(nullable = false, length = 55)
     private String email;
+
+    //Bloqueo optimista: cada UPDATE incrementa la version y falla si otro cliente ya la cambio
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 public class Specialty {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "specialty_seq")
+    @SequenceGenerator(name = "specialty_seq", sequenceName = "specialty_seq", allocationSize = IdAllocation.SIZE)
     @EqualsAndHashCode.Include
     private Integer idSpecialty;
 
@@ -1,11 +1,55 @@
 package com.mitocode.repo;
 
+import com.mitocode.dto.PatientDni;
+import com.mitocode.dto.PatientView;
 import com.mitocode.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 //entre interfases se heredan, solo una clase puede implementar
 // El JpaRepository tiene implementado el CRUD y sus atributos son -> <Clase, ID>
-public interface IPatientRepo extends JpaRepository<Patient, Integer> {
+public interface IPatientRepo extends JpaRepository<Patient, Integer>, IPatientRepoCustom {
 
     //Patient save(Patient patient);
+
+    //Keyset: WHERE id_patient > :idPatient ORDER BY id_patient LIMIT :limit -> usa el indice de la PK, no hace OFFSET.
+    //type: proyeccion dinamica (PatientView para los listados)
+    <T> List<T> findByIdPatientGreaterThanOrderByIdPatientAsc(Integer idPatient, Limit limit, Class<T> type);
+
+    //Cursor del lado del servidor: con autocommit=false (dentro de una transaccion) pgjdbc trae las filas de a
+    //fetchSize en vez de cargar todo el resultado en memoria. El Stream debe cerrarse (try-with-resources)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+            SELECT new com.mitocode.dto.PatientView(p.idPatient, p.firstName, p.lastName, p.dni,
+                   p.address, p.phone, p.email, p.version)
+            FROM Patient p ORDER BY p.idPatient""")
+    Stream<PatientView> streamAll();
+
+    //Solo las dos columnas que necesita el indice de DNIs en memoria, en orden de id (el primer DNI registrado gana)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "10000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.mitocode.dto.PatientDni(p.idPatient, p.dni) FROM Patient p ORDER BY p.idPatient")
+    Stream<PatientDni> streamDnis();
+
+    Optional<Patient> findFirstByDniOrderByIdPatientAsc(String dni);
+
+    //WHERE id_patient IN (...): con in_clause_parameter_padding el SQL se reutiliza para lotes de tamaño parecido
+    <T> List<T> findByIdPatientIn(Collection<Integer> ids, Class<T> type);
 }
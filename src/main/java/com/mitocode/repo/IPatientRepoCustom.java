@@ -0,0 +1,36 @@
+package com.mitocode.repo;
+
+import com.mitocode.dto.PatientView;
+import com.mitocode.model.Patient;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+//Operaciones que no se pueden expresar con Spring Data; la implementacion es IPatientRepoCustomImpl
+public interface IPatientRepoCustom {
+
+    //UPDATE de solo las columnas recibidas (claves = atributos de Patient). Con expectedVersion != null solo
+    //actualiza si la version coincide. Vacio si ninguna fila cumplio el WHERE
+    Optional<Patient> patch(Integer id, Map<String, Object> changes, Long expectedVersion);
+
+    //Busqueda por prefijo de DNI/telefono (idx_patient_dni_prefix, idx_patient_phone_prefix). El DNI exacto va primero
+    List<PatientView> searchByNumberPrefix(String digits, int limit, int offset);
+
+    //Busqueda por trigramas sobre nombre, apellido y email (idx_patient_search_trgm), ordenada por similitud.
+    //term ya viene normalizado (minusculas, sin tildes)
+    List<PatientView> searchByText(String term, int limit, int offset);
+
+    //Sparse fieldsets (?fields=): mismas consultas pero el SELECT solo trae los atributos pedidos.
+    //Cada fila es un Map atributo -> valor en el orden de fields
+    List<Map<String, Object>> findPageFields(Collection<String> fields, Integer after, int limit);
+
+    List<Map<String, Object>> findByIdsFields(Collection<String> fields, Collection<Integer> ids);
+
+    Optional<Map<String, Object>> findByIdFields(Collection<String> fields, Integer id);
+
+    List<Map<String, Object>> searchByNumberPrefixFields(Collection<String> fields, String digits, int limit, int offset);
+
+    List<Map<String, Object>> searchByTextFields(Collection<String> fields, String term, int limit, int offset);
+}
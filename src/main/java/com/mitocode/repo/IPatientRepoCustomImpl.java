@@ -0,0 +1,155 @@
+package com.mitocode.repo;
+
+import com.mitocode.dto.PatientView;
+import com.mitocode.model.Patient;
+import com.mitocode.util.SearchText;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+@RequiredArgsConstructor
+public class IPatientRepoCustomImpl implements IPatientRepoCustom {
+
+    private static final RowMapper<Patient> PATIENT_ROW = (rs, i) -> {
+        Patient patient = new Patient();
+        patient.setIdPatient(rs.getInt("id_patient"));
+        patient.setFirstName(rs.getString("first_name"));
+        patient.setLastName(rs.getString("last_name"));
+        patient.setDni(rs.getString("dni"));
+        patient.setAddress(rs.getString("address"));
+        patient.setPhone(rs.getString("phone"));
+        patient.setEmail(rs.getString("email"));
+        patient.setVersion(rs.getLong("version"));
+        return patient;
+    };
+
+    private static final String VIEW_COLUMNS = "p.id_patient, p.first_name, p.last_name, p.dni, p.address, p.phone, p.email, p.version";
+
+    //Todas las consultas de lectura se arman como "SELECT <columnas> " + uno de estos FROM ... (mismo WHERE y ORDER BY
+    //para PatientView y para ?fields=)
+    private static final String PAGE_FROM = """
+            FROM patient p WHERE p.id_patient > :after ORDER BY p.id_patient LIMIT :limit""";
+
+    private static final String IDS_FROM = "FROM patient p WHERE p.id_patient IN (:ids)";
+
+    private static final String ID_FROM = "FROM patient p WHERE p.id_patient = :id";
+
+    private static final String SEARCH_BY_NUMBER_FROM = """
+            FROM patient p
+            WHERE p.dni LIKE :prefix OR p.phone LIKE :prefix
+            ORDER BY (p.dni = :q) DESC, (p.dni LIKE :prefix) DESC, p.id_patient
+            LIMIT :limit OFFSET :offset""";
+
+    private static final String SEARCH_BY_TEXT_FROM = """
+            FROM patient p
+            WHERE patient_search_text(p.first_name, p.last_name, p.email) LIKE :contains
+               OR :q <% patient_search_text(p.first_name, p.last_name, p.email)
+            ORDER BY word_similarity(:q, patient_search_text(p.first_name, p.last_name, p.email)) DESC, p.id_patient
+            LIMIT :limit OFFSET :offset""";
+
+    private static final RowMapper<PatientView> VIEW_ROW = (rs, i) -> new PatientView(
+            rs.getInt("id_patient"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getString("dni"),
+            rs.getString("address"),
+            rs.getString("phone"),
+            rs.getString("email"),
+            rs.getLong("version"));
+
+    //claves = alias de columna = nombre del atributo
+    private static final ColumnMapRowMapper FIELDS_ROW = new ColumnMapRowMapper();
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    //Una sola sentencia: UPDATE ... RETURNING evita el SELECT previo del merge y el SELECT posterior
+    @Override
+    public Optional<Patient> patch(Integer id, Map<String, Object> changes, Long expectedVersion) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        StringJoiner set = new StringJoiner(", ", "UPDATE patient SET ", ", version = version + 1");
+        changes.forEach((attribute, value) -> {
+            if (!PatientColumns.isPatchable(attribute)) {
+                throw new IllegalArgumentException("Attribute can not be patched: " + attribute);
+            }
+            set.add(PatientColumns.column(attribute) + " = :" + attribute);
+            params.addValue(attribute, value);
+        });
+
+        StringBuilder sql = new StringBuilder(set.toString()).append(" WHERE id_patient = :id");
+        if (expectedVersion != null) {
+            sql.append(" AND version = :version");
+            params.addValue("version", expectedVersion);
+        }
+        sql.append(" RETURNING id_patient, first_name, last_name, dni, address, phone, email, version");
+
+        List<Patient> rows = jdbc.query(sql.toString(), params, PATIENT_ROW);
+        return rows.stream().findFirst();
+    }
+
+    //Las busquedas van directo por JDBC a PatientView: no pasan por el contexto de persistencia
+    @Override
+    public List<PatientView> searchByNumberPrefix(String digits, int limit, int offset) {
+        return jdbc.query("SELECT " + VIEW_COLUMNS + " " + SEARCH_BY_NUMBER_FROM, numberParams(digits, limit, offset), VIEW_ROW);
+    }
+
+    @Override
+    public List<PatientView> searchByText(String term, int limit, int offset) {
+        return jdbc.query("SELECT " + VIEW_COLUMNS + " " + SEARCH_BY_TEXT_FROM, textParams(term, limit, offset), VIEW_ROW);
+    }
+
+    @Override
+    public List<Map<String, Object>> findPageFields(Collection<String> fields, Integer after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after", after)
+                .addValue("limit", limit);
+        return selectFields(fields, PAGE_FROM, params);
+    }
+
+    @Override
+    public List<Map<String, Object>> findByIdsFields(Collection<String> fields, Collection<Integer> ids) {
+        return selectFields(fields, IDS_FROM, new MapSqlParameterSource("ids", ids));
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findByIdFields(Collection<String> fields, Integer id) {
+        return selectFields(fields, ID_FROM, new MapSqlParameterSource("id", id)).stream().findFirst();
+    }
+
+    @Override
+    public List<Map<String, Object>> searchByNumberPrefixFields(Collection<String> fields, String digits, int limit, int offset) {
+        return selectFields(fields, SEARCH_BY_NUMBER_FROM, numberParams(digits, limit, offset));
+    }
+
+    @Override
+    public List<Map<String, Object>> searchByTextFields(Collection<String> fields, String term, int limit, int offset) {
+        return selectFields(fields, SEARCH_BY_TEXT_FROM, textParams(term, limit, offset));
+    }
+
+    private List<Map<String, Object>> selectFields(Collection<String> fields, String from, MapSqlParameterSource params) {
+        return jdbc.query("SELECT " + PatientColumns.selectList(fields) + " " + from, params, FIELDS_ROW);
+    }
+
+    private static MapSqlParameterSource numberParams(String digits, int limit, int offset) {
+        return new MapSqlParameterSource()
+                .addValue("q", digits)
+                .addValue("prefix", digits + "%")
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+    }
+
+    private static MapSqlParameterSource textParams(String term, int limit, int offset) {
+        return new MapSqlParameterSource()
+                .addValue("q", term)
+                .addValue("contains", "%" + SearchText.escapeLike(term) + "%")
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+    }
+}
@@ -0,0 +1,60 @@
+package com.mitocode.repo;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+//Atributo de Patient -> columna de la tabla patient, para el SQL que se arma dinamicamente (PATCH, ?fields=)
+public final class PatientColumns {
+
+    public static final String ID = "idPatient";
+    public static final String VERSION = "version";
+
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put(ID, "id_patient");
+        COLUMNS.put("firstName", "first_name");
+        COLUMNS.put("lastName", "last_name");
+        COLUMNS.put("dni", "dni");
+        COLUMNS.put("address", "address");
+        COLUMNS.put("phone", "phone");
+        COLUMNS.put("email", "email");
+        COLUMNS.put(VERSION, "version");
+    }
+
+    //id_patient, first_name, ...: todas las columnas en el orden de COLUMNS
+    public static String columnList() {
+        return String.join(", ", COLUMNS.values());
+    }
+
+    private PatientColumns() {
+    }
+
+    public static boolean isKnown(String attribute) {
+        return COLUMNS.containsKey(attribute);
+    }
+
+    //atributos que el cliente puede modificar con PATCH
+    public static boolean isPatchable(String attribute) {
+        return isKnown(attribute) && !ID.equals(attribute) && !VERSION.equals(attribute);
+    }
+
+    public static String column(String attribute) {
+        String column = COLUMNS.get(attribute);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown Patient attribute: " + attribute);
+        }
+        return column;
+    }
+
+    //p.first_name AS "firstName", ...: el alias es el nombre del atributo para serializar el Map tal cual
+    public static String selectList(Collection<String> attributes) {
+        StringJoiner select = new StringJoiner(", ");
+        for (String attribute : attributes) {
+            select.add("p." + column(attribute) + " AS \"" + attribute + "\"");
+        }
+        return select.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.mitocode.repo;
+
+import com.mitocode.model.IdAllocation;
+import com.mitocode.model.Patient;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Acceso no bloqueante (R2DBC) a la tabla patient para /reactive/patients. Comparte el modelo Patient y las
+//columnas de PatientColumns con el lado JPA; el SQL es explicito porque Patient esta mapeado con anotaciones JPA
+@Repository
+@RequiredArgsConstructor
+public class PatientReactiveRepo {
+
+    private static final String COLUMNS = PatientColumns.columnList();
+    private static final int FETCH_SIZE = 1000;
+
+    private final DatabaseClient client;
+
+    //Bloque de ids tomado de patient_seq con la misma regla que el optimizador pooled de Hibernate:
+    //nextval devuelve el tope y el bloque es (tope - 49 .. tope), asi JPA, la importacion y este repo no chocan
+    private long nextId = 1;
+    private long blockHi = 0;
+
+    //Las filas se piden en bloques de FETCH_SIZE a medida que el suscriptor las consume
+    public Flux<Patient> findAll() {
+        return client.sql("SELECT " + COLUMNS + " FROM patient ORDER BY id_patient")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(PatientReactiveRepo::toPatient)
+                .all();
+    }
+
+    public Mono<Patient> findById(Integer id) {
+        return client.sql("SELECT " + COLUMNS + " FROM patient WHERE id_patient = :id")
+                .bind("id", id)
+                .map(PatientReactiveRepo::toPatient)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Integer id) {
+        return client.sql("SELECT 1 FROM patient WHERE id_patient = :id")
+                .bind("id", id)
+                .map(row -> 1)
+                .one()
+                .hasElement();
+    }
+
+    public Mono<Patient> insert(Patient patient) {
+        return nextId().flatMap(id -> bindValues(client.sql(
+                        "INSERT INTO patient (" + COLUMNS + ") "
+                                + "VALUES (:id, :firstName, :lastName, :dni, :address, :phone, :email, 0) "
+                                + "RETURNING " + COLUMNS), patient)
+                .bind("id", id)
+                .map(PatientReactiveRepo::toPatient)
+                .one());
+    }
+
+    //Vacio si el id no existe o si expectedVersion no coincide con la version actual
+    public Mono<Patient> update(Integer id, Patient patient, Long expectedVersion) {
+        String sql = "UPDATE patient SET first_name = :firstName, last_name = :lastName, dni = :dni, "
+                + "address = :address, phone = :phone, email = :email, version = version + 1 "
+                + "WHERE id_patient = :id" + (expectedVersion == null ? "" : " AND version = :version")
+                + " RETURNING " + COLUMNS;
+        DatabaseClient.GenericExecuteSpec spec = bindValues(client.sql(sql), patient).bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return spec.map(PatientReactiveRepo::toPatient).one();
+    }
+
+    public Mono<Long> deleteById(Integer id) {
+        return client.sql("DELETE FROM patient WHERE id_patient = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Integer> nextId() {
+        Integer id = takeId();
+        if (id != null) {
+            return Mono.just(id);
+        }
+        return client.sql("SELECT nextval('patient_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(this::refill);
+    }
+
+    private synchronized Integer takeId() {
+        return nextId <= blockHi ? (int) nextId++ : null;
+    }
+
+    //si dos solicitudes piden bloque a la vez, el bloque que se descarta solo deja ids sin usar
+    private synchronized int refill(long hi) {
+        long first = hi - IdAllocation.SIZE + 1;
+        nextId = first + 1;
+        blockHi = hi;
+        return (int) first;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindValues(DatabaseClient.GenericExecuteSpec spec, Patient patient) {
+        spec = bind(spec, "firstName", patient.getFirstName());
+        spec = bind(spec, "lastName", patient.getLastName());
+        spec = bind(spec, "dni", patient.getDni());
+        spec = bind(spec, "address", patient.getAddress());
+        spec = bind(spec, "phone", patient.getPhone());
+        return bind(spec, "email", patient.getEmail());
+    }
+
+    //R2DBC no acepta bind(name, null): los nulos necesitan el tipo
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static Patient toPatient(Readable row) {
+        return new Patient(
+                row.get("id_patient", Integer.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("dni", String.class),
+                row.get("address", String.class),
+                row.get("phone", String.class),
+                row.get("email", String.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,14 @@
+package com.mitocode.service;
+
+import java.util.function.Supplier;
+
+public interface IIdempotencyService {
+
+    //body: respuesta JSON de la primera ejecucion; replayed indica que no se volvio a ejecutar la accion
+    record Result(byte[] body, boolean replayed) {
+    }
+
+    //scope separa los tipos de operacion (patients, consults...). requestHash detecta que la misma clave se
+    //reutiliza con otro cuerpo
+    Result execute(String scope, String key, String requestHash, Supplier<Object> action);
+}
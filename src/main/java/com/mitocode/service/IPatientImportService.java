@@ -0,0 +1,12 @@
+package com.mitocode.service;
+
+import com.mitocode.dto.ImportFormat;
+import com.mitocode.dto.ImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IPatientImportService {
+
+    ImportResult importPatients(InputStream in, ImportFormat format) throws IOException;
+}
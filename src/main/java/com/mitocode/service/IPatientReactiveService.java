@@ -0,0 +1,19 @@
+package com.mitocode.service;
+
+import com.mitocode.model.Patient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Version no bloqueante de IPatientService para /reactive/patients
+public interface IPatientReactiveService {
+
+    Flux<Patient> findAll();
+
+    Mono<Patient> findById(Integer id);
+
+    Mono<Patient> save(Patient patient);
+
+    Mono<Patient> update(Integer id, Patient patient);
+
+    Mono<Void> delete(Integer id);
+}
@@ -1,8 +1,14 @@
 package com.mitocode.service;
 
+import com.mitocode.dto.BatchResult;
+import com.mitocode.dto.CursorPage;
+import com.mitocode.dto.PatientView;
 import com.mitocode.model.Patient;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface IPatientService {
 
@@ -10,10 +16,31 @@ public interface IPatientService {
 
     Patient update(Integer id, Patient patient);
 
+    Patient patch(Integer id, Map<String, Object> changes);
+
     List<Patient> findAll();
 
+    CursorPage<PatientView> findPage(String cursor, int size);
+
+    //fields: atributos de ?fields= (ver PatientFields)
+    CursorPage<Map<String, Object>> findPage(String cursor, int size, Set<String> fields);
+
+    CursorPage<PatientView> search(String q, String cursor, int size);
+
+    CursorPage<Map<String, Object>> search(String q, String cursor, int size, Set<String> fields);
+
+    void forEachPatient(Consumer<PatientView> action);
+
     Patient findById(Integer id);
 
+    Map<String, Object> findById(Integer id, Set<String> fields);
+
+    Patient findByDni(String dni);
+
+    BatchResult<PatientView> findByIds(List<Integer> ids);
+
+    BatchResult<Map<String, Object>> findByIds(List<Integer> ids, Set<String> fields);
+
     void delete(Integer id);
 
     //Patient validAndSave(Patient patient);
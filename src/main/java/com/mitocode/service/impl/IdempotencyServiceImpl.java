@@ -0,0 +1,197 @@
+package com.mitocode.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mitocode.exception.IdempotencyKeyInProgressException;
+import com.mitocode.exception.IdempotencyKeyReuseException;
+import com.mitocode.exception.InvalidIdempotencyKeyException;
+import com.mitocode.service.IIdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+//Idempotency-Key: la primera solicitud ejecuta la accion y guarda la respuesta; los reintentos la reciben sin volver
+//a ejecutar. Los duplicados concurrentes esperan el CompletableFuture de la primera en vez de competir por el INSERT.
+//En memoria (Caffeine, acotado por tamaño y TTL) y opcionalmente en la tabla idempotency_key, que coordina a las
+//instancias: la clave se reclama con un INSERT antes de ejecutar la accion, en la misma transaccion que la accion y la
+//respuesta. Un duplicado en otra instancia queda bloqueado en su INSERT hasta que la primera confirme (y entonces lee
+//la respuesta) o se revierta (y entonces la ejecuta el); si espera mas de wait-timeout recibe 409
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    //una clave vencida (aun no purgada) se vuelve a reclamar como nueva
+    private static final String CLAIM = """
+            INSERT INTO idempotency_key (scope, idem_key, request_hash) VALUES (?, ?, ?)
+            ON CONFLICT (scope, idem_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash, response = NULL, created_at = now()
+                WHERE idempotency_key.created_at < now() - ? * interval '1 second'""";
+
+    private record Stored(String requestHash, byte[] body) {
+    }
+
+    private record Execution(Stored stored, boolean replayed) {
+    }
+
+    private final Cache<String, CompletableFuture<Stored>> entries;
+    private final ObjectMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean persistent;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+
+    public IdempotencyServiceImpl(ObjectMapper mapper, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager, MeterRegistry registry,
+                                  @Value("${patient.idempotency.max-entries}") long maxEntries,
+                                  @Value("${patient.idempotency.ttl}") Duration ttl,
+                                  @Value("${patient.idempotency.wait-timeout}") Duration waitTimeout,
+                                  @Value("${patient.idempotency.persistent}") boolean persistent) {
+        this.mapper = mapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.persistent = persistent;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, entries, "idempotencyKeys");
+    }
+
+    @Override
+    public Result execute(String scope, String key, String requestHash, Supplier<Object> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = scope + ':' + key;
+        CompletableFuture<Stored> mine = new CompletableFuture<>();
+        CompletableFuture<Stored> first = entries.asMap().putIfAbsent(cacheKey, mine);
+        if (first != null) {
+            return replay(await(first, key), requestHash, key);
+        }
+
+        try {
+            if (persistent) {
+                Execution execution = transactionTemplate.execute(status -> claimAndRun(scope, key, requestHash, action));
+                mine.complete(execution.stored());
+                return execution.replayed()
+                        ? replay(execution.stored(), requestHash, key)
+                        : new Result(execution.stored().body(), false);
+            }
+
+            Stored stored = new Stored(requestHash, serialize(action.get()));
+            mine.complete(stored);
+            return new Result(stored.body(), false);
+        } catch (CannotAcquireLockException e) {
+            //lock_timeout: la primera solicitud (en otra instancia) sigue en ejecucion
+            IdempotencyKeyInProgressException inProgress = new IdempotencyKeyInProgressException(
+                    "Request with Idempotency-Key " + key + " is still in progress");
+            release(cacheKey, mine, inProgress);
+            throw inProgress;
+        } catch (RuntimeException | Error e) {
+            release(cacheKey, mine, e);
+            throw e;
+        }
+    }
+
+    //Una sola transaccion: si la accion o el guardado de la respuesta fallan (o el proceso muere), se revierte tambien
+    //el reclamo y un reintento vuelve a ejecutar; nunca queda un paciente insertado sin su respuesta guardada
+    private Execution claimAndRun(String scope, String key, String requestHash, Supplier<Object> action) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + waitTimeout.toMillis());
+        if (jdbcTemplate.update(CLAIM, scope, key, requestHash, ttl.toSeconds()) == 0) {
+            //la clave ya estaba confirmada por otra solicitud: se devuelve su respuesta
+            return new Execution(load(scope, key), true);
+        }
+        Stored stored = new Stored(requestHash, serialize(action.get()));
+        jdbcTemplate.update("UPDATE idempotency_key SET response = ? WHERE scope = ? AND idem_key = ?",
+                stored.body(), scope, key);
+        return new Execution(stored, false);
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return mapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //la accion fallo: se libera la clave para que un reintento la vuelva a ejecutar
+    private void release(String cacheKey, CompletableFuture<Stored> mine, Throwable error) {
+        entries.asMap().remove(cacheKey, mine);
+        mine.completeExceptionally(error);
+    }
+
+    private Stored await(CompletableFuture<Stored> first, String key) {
+        try {
+            return first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("Request with Idempotency-Key " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for Idempotency-Key " + key);
+        } catch (ExecutionException e) {
+            //la primera ejecucion fallo: el duplicado recibe el mismo error
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Result replay(Stored stored, String requestHash, String key) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key " + key + " was already used with a different request body");
+        }
+        return new Result(stored.body(), true);
+    }
+
+    //response solo es NULL dentro de la transaccion que reclamo la clave, que las demas no ven
+    private Stored load(String scope, String key) {
+        List<Stored> rows = jdbcTemplate.query(
+                "SELECT request_hash, response FROM idempotency_key WHERE scope = ? AND idem_key = ? AND response IS NOT NULL",
+                (rs, i) -> new Stored(rs.getString("request_hash"), rs.getBytes("response")),
+                scope, key);
+        if (rows.isEmpty()) {
+            throw new IdempotencyKeyInProgressException("Request with Idempotency-Key " + key + " is still in progress");
+        }
+        return rows.get(0);
+    }
+
+    @Scheduled(fixedDelayString = "${patient.idempotency.purge-interval}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        //el vencimiento se calcula con el reloj de la BD, el mismo para todas las instancias
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_key WHERE created_at < now() - ? * interval '1 second'",
+                ttl.toSeconds());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.mitocode.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mitocode.cache.PatientResponseCache;
+import com.mitocode.dto.ImportError;
+import com.mitocode.dto.ImportFormat;
+import com.mitocode.dto.ImportResult;
+import com.mitocode.exception.InvalidImportException;
+import com.mitocode.model.IdAllocation;
+import com.mitocode.model.Patient;
+import com.mitocode.service.IPatientImportService;
+import com.mitocode.util.CsvLine;
+import com.mitocode.util.DniIndex;
+import com.mitocode.util.PatientValidator;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+//Importacion masiva: el archivo se lee por bloques, cada bloque se valida en paralelo y las filas validas se envian
+//con COPY a una tabla temporal. Al final se detectan DNIs duplicados (contra la tabla y dentro del archivo) y se
+//hace un solo INSERT ... SELECT hacia patient
+@Service
+@RequiredArgsConstructor
+public class PatientImportServiceImpl implements IPatientImportService {
+
+    private static final int CHUNK_SIZE = 5_000;
+    //clave del pg_advisory_xact_lock: dos importaciones simultaneas podrian insertar el mismo DNI
+    private static final long IMPORT_LOCK_KEY = 0x5041_5449_454EL;
+    private static final String[] CSV_COLUMNS = {"firstName", "lastName", "dni", "address", "phone", "email"};
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE patient_import (
+                line_no bigint NOT NULL,
+                first_name varchar(70),
+                last_name varchar(70),
+                dni varchar(8),
+                address varchar(150),
+                phone varchar(9),
+                email varchar(55),
+                error text
+            ) ON COMMIT DROP""";
+
+    private static final String COPY_STAGING =
+            "COPY patient_import (line_no, first_name, last_name, dni, address, phone, email) FROM STDIN (FORMAT csv)";
+
+    private static final String MARK_REGISTERED = """
+            UPDATE patient_import s SET error = 'DNI already registered'
+            WHERE EXISTS (SELECT 1 FROM patient p WHERE p.dni = s.dni)""";
+
+    private static final String MARK_REPEATED = """
+            UPDATE patient_import s SET error = 'DNI repeated in upload'
+            WHERE s.error IS NULL
+              AND EXISTS (SELECT 1 FROM patient_import o WHERE o.dni = s.dni AND o.line_no < s.line_no)""";
+
+    //Cada nextval del optimizador pooled reserva el bloque (hi - SIZE + 1 .. hi), igual que hace Hibernate
+    private static final String MERGE = """
+            INSERT INTO patient (id_patient, first_name, last_name, dni, address, phone, email, version)
+            SELECT b.hi - %1$d + 1 + r.rn %% %1$d, r.first_name, r.last_name, r.dni, r.address, r.phone, r.email, 0
+            FROM (SELECT s.*, row_number() OVER (ORDER BY s.line_no) - 1 AS rn
+                  FROM patient_import s WHERE s.error IS NULL) r
+            JOIN (SELECT nextval('patient_seq') AS hi, row_number() OVER () - 1 AS blk
+                  FROM generate_series(1, ?)) b ON b.blk = r.rn / %1$d
+            RETURNING id_patient, dni""".formatted(IdAllocation.SIZE);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper;
+    private final DniIndex dniIndex;
+    private final PatientResponseCache responseCache;
+
+    @Value("${patient.import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    @Transactional
+    @Override
+    public ImportResult importPatients(InputStream in, ImportFormat format) throws IOException {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)::text", String.class, IMPORT_LOCK_KEY);
+        jdbcTemplate.execute(CREATE_STAGING);
+
+        ImportState state = new ImportState();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Function<String, Patient> parser;
+        if (format == ImportFormat.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new InvalidImportException("CSV upload is empty");
+            }
+            parser = csvParser(header);
+            state.lineNo = 1;
+        } else {
+            ObjectReader jsonReader = mapper.readerFor(Patient.class);
+            parser = line -> readJson(jsonReader, line);
+        }
+
+        copyToStaging(reader, parser, state);
+
+        jdbcTemplate.execute("CREATE INDEX ON patient_import (dni)");
+        jdbcTemplate.execute("ANALYZE patient_import");
+        jdbcTemplate.update(MARK_REGISTERED);
+        jdbcTemplate.update(MARK_REPEATED);
+
+        Long valid = jdbcTemplate.queryForObject("SELECT count(*) FROM patient_import WHERE error IS NULL", Long.class);
+        long blocks = (valid + IdAllocation.SIZE - 1) / IdAllocation.SIZE;
+        long[] imported = {0};
+        if (valid > 0) {
+            //si la transaccion se revierte, las entradas sobrantes se descartan en PatientServiceImpl.findByDni.
+            //Con el indice deshabilitado o aun sin construir no se escribe en el
+            boolean indexDnis = dniIndex.isReady();
+            jdbcTemplate.query(MERGE, (RowCallbackHandler) rs -> {
+                if (indexDnis) {
+                    dniIndex.put(rs.getString("dni"), rs.getInt("id_patient"));
+                }
+                imported[0]++;
+            }, blocks);
+        }
+
+        if (imported[0] > 0) {
+            //despues del commit: antes, otra lectura podria volver a guardar la pagina sin las filas importadas
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    responseCache.invalidateAll();
+                }
+            });
+        }
+
+        Long duplicated = jdbcTemplate.queryForObject("SELECT count(*) FROM patient_import WHERE error IS NOT NULL", Long.class);
+        state.rejected += duplicated;
+        if (duplicated > 0) {
+            state.errors.addAll(jdbcTemplate.query(
+                    "SELECT line_no, dni, error FROM patient_import WHERE error IS NOT NULL ORDER BY line_no LIMIT ?",
+                    (rs, i) -> new ImportError(rs.getLong("line_no"), rs.getString("dni"), rs.getString("error")),
+                    maxReportedErrors));
+        }
+
+        List<ImportError> errors = state.errors.stream()
+                .sorted(Comparator.comparingLong(ImportError::line))
+                .limit(maxReportedErrors)
+                .toList();
+        return new ImportResult(state.received, imported[0], state.rejected, errors, state.rejected > errors.size());
+    }
+
+    private void copyToStaging(BufferedReader reader, Function<String, Patient> parser, ImportState state) throws IOException {
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        CopyIn copy;
+        try {
+            copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not start COPY into patient_import", e);
+        }
+
+        try {
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, parser, state, copy);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, parser, state, copy);
+            copy.endCopy();
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY into patient_import failed", e);
+        } finally {
+            if (copy.isActive()) {
+                try {
+                    copy.cancelCopy();
+                } catch (SQLException ignored) {
+                    //la transaccion se revierte de todas formas
+                }
+            }
+        }
+    }
+
+    private void writeChunk(List<String> chunk, Function<String, Patient> parser, ImportState state, CopyIn copy) throws SQLException {
+        long firstLine = state.lineNo + 1;
+        ParsedRow[] rows = new ParsedRow[chunk.size()];
+        IntStream.range(0, chunk.size()).parallel()
+                .forEach(i -> rows[i] = parse(parser, chunk.get(i)));
+
+        StringBuilder csv = new StringBuilder(chunk.size() * 128);
+        for (int i = 0; i < rows.length; i++) {
+            ParsedRow row = rows[i];
+            if (row == null) {
+                continue; //linea en blanco
+            }
+            long lineNo = firstLine + i;
+            state.received++;
+            if (row.error() != null) {
+                state.reject(new ImportError(lineNo, row.patient() == null ? null : row.patient().getDni(), row.error()), maxReportedErrors);
+                continue;
+            }
+            Patient p = row.patient();
+            csv.append(lineNo).append(',');
+            CsvLine.appendField(csv, p.getFirstName());
+            csv.append(',');
+            CsvLine.appendField(csv, p.getLastName());
+            csv.append(',');
+            CsvLine.appendField(csv, p.getDni());
+            csv.append(',');
+            CsvLine.appendField(csv, p.getAddress());
+            csv.append(',');
+            CsvLine.appendField(csv, p.getPhone());
+            csv.append(',');
+            CsvLine.appendField(csv, p.getEmail());
+            csv.append('\n');
+        }
+        state.lineNo += chunk.size();
+
+        if (!csv.isEmpty()) {
+            byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+        }
+    }
+
+    private ParsedRow parse(Function<String, Patient> parser, String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        Patient patient;
+        try {
+            patient = parser.apply(line);
+        } catch (RuntimeException e) {
+            return new ParsedRow(null, "Malformed row: " + e.getMessage());
+        }
+        return new ParsedRow(patient, PatientValidator.validate(patient));
+    }
+
+    private Function<String, Patient> csvParser(String header) {
+        List<String> columns = CsvLine.split(header).stream()
+                .map(c -> c.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int[] index = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            index[i] = columns.indexOf(CSV_COLUMNS[i].toLowerCase(Locale.ROOT));
+            if (index[i] < 0 && !"address".equals(CSV_COLUMNS[i])) {
+                throw new InvalidImportException("CSV header is missing column " + CSV_COLUMNS[i]);
+            }
+        }
+
+        return line -> {
+            List<String> fields = CsvLine.split(line);
+            Patient patient = new Patient();
+            patient.setFirstName(field(fields, index[0]));
+            patient.setLastName(field(fields, index[1]));
+            patient.setDni(field(fields, index[2]));
+            patient.setAddress(field(fields, index[3]));
+            patient.setPhone(field(fields, index[4]));
+            patient.setEmail(field(fields, index[5]));
+            return patient;
+        };
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Patient readJson(ObjectReader reader, String line) {
+        try {
+            Patient patient = reader.readValue(line);
+            patient.setIdPatient(null);
+            return patient;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+    }
+
+    private record ParsedRow(Patient patient, String error) {
+    }
+
+    private static class ImportState {
+        private long lineNo;
+        private long received;
+        private long rejected;
+        private final List<ImportError> errors = new ArrayList<>();
+
+        private void reject(ImportError error, int maxReported) {
+            rejected++;
+            if (errors.size() < maxReported) {
+                errors.add(error);
+            }
+        }
+    }
+}
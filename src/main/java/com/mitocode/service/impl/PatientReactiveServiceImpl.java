@@ -0,0 +1,71 @@
+package com.mitocode.service.impl;
+
+import com.mitocode.cache.PatientEntityCache;
+import com.mitocode.exception.ResourceNotFoundException;
+import com.mitocode.model.Patient;
+import com.mitocode.repo.PatientReactiveRepo;
+import com.mitocode.service.IPatientReactiveService;
+import com.mitocode.util.DniIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Mismo comportamiento que PatientServiceImpl sobre R2DBC. Las escrituras mantienen al dia los caches del lado JPA
+//(cache de entidades, respuestas serializadas e indice DNI), que son en memoria y no bloquean
+@Service
+@RequiredArgsConstructor
+public class PatientReactiveServiceImpl implements IPatientReactiveService {
+
+    private final PatientReactiveRepo repo;
+    private final PatientEntityCache entityCache;
+    private final DniIndex dniIndex;
+
+    @Override
+    public Flux<Patient> findAll() {
+        return repo.findAll();
+    }
+
+    //igual que PatientServiceImpl.findById: un id inexistente devuelve un Patient vacio
+    @Override
+    public Mono<Patient> findById(Integer id) {
+        return repo.findById(id).defaultIfEmpty(new Patient());
+    }
+
+    @Override
+    public Mono<Patient> save(Patient patient) {
+        return repo.insert(patient).doOnNext(this::written);
+    }
+
+    //sin version en el body gana el ultimo en escribir; con version, responde 409 si ya cambio
+    @Override
+    public Mono<Patient> update(Integer id, Patient patient) {
+        return repo.update(id, patient, patient.getVersion())
+                .switchIfEmpty(Mono.defer(() -> notUpdated(id, patient.getVersion())))
+                .doOnNext(this::written);
+    }
+
+    @Override
+    public Mono<Void> delete(Integer id) {
+        return repo.deleteById(id)
+                .doOnNext(deleted -> entityCache.invalidate(id))
+                .then();
+    }
+
+    private Mono<Patient> notUpdated(Integer id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new ResourceNotFoundException("Patient not found: " + id));
+        }
+        return repo.existsById(id).flatMap(exists -> Mono.error(exists
+                ? new OptimisticLockingFailureException("Patient " + id + " is no longer at version " + expectedVersion)
+                : new ResourceNotFoundException("Patient not found: " + id)));
+    }
+
+    private void written(Patient patient) {
+        if (dniIndex.isReady()) {
+            dniIndex.put(patient.getDni(), patient.getIdPatient());
+        }
+        entityCache.invalidate(patient.getIdPatient());
+    }
+}
@@ -1,30 +1,136 @@
 package com.mitocode.service.impl;
 
+import com.mitocode.cache.PatientEntityCache;
+import com.mitocode.dto.BatchResult;
+import com.mitocode.dto.CursorPage;
+import com.mitocode.dto.PatientDni;
+import com.mitocode.dto.PatientView;
+import com.mitocode.exception.InvalidBatchException;
+import com.mitocode.exception.InvalidPatchException;
+import com.mitocode.exception.ResourceNotFoundException;
 import com.mitocode.model.Patient;
 import com.mitocode.repo.IPatientRepo;
+import com.mitocode.repo.PatientColumns;
 import com.mitocode.repo.PatientRepoImpl;
 import com.mitocode.service.IPatientService;
+import com.mitocode.util.CursorCodec;
+import com.mitocode.util.DniIndex;
+import com.mitocode.util.PatientValidator;
+import com.mitocode.util.SearchText;
+import com.mitocode.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PatientServiceImpl implements IPatientService {
 
     //@Autowired
     private final IPatientRepo repo; // = new PatientRepo();
+    private final SingleFlight<Integer, Optional<Patient>> lookups;
+    private final DniIndex dniIndex;
+    private final PatientEntityCache entityCache;
 
+    @Value("${patient.page.max-size}")
+    private int maxPageSize;
+
+    @Value("${patient.batch.max-size}")
+    private int maxBatchSize;
+
+    @Value("${patient.dni-index.enabled}")
+    private boolean dniIndexEnabled;
+
+    //POST con idPatient: si existe se sobrescribe (sin version en el body gana el ultimo en escribir, como en update);
+    //si no existe se inserta con un id nuevo de la secuencia. Sin version, el merge de un id asignado fallaria
     @Override
     public Patient save(Patient patient) {
-        return repo.save(patient);
+        if (patient.getIdPatient() != null && patient.getVersion() == null) {
+            Optional<Patient> current = repo.findById(patient.getIdPatient());
+            if (current.isPresent()) {
+                patient.setVersion(current.get().getVersion());
+            } else {
+                patient.setIdPatient(null);
+            }
+        }
+        Patient saved = repo.save(patient);
+        indexDni(saved.getDni(), saved.getIdPatient());
+        written(saved.getIdPatient());
+        return saved;
     }
 
     @Override
     public Patient update(Integer id, Patient patient) {
         //VALIDAR EL ID con java reflexion
-        return repo.save(patient);
+        //sin version en el body se toma la actual (ultimo en escribir gana); con version, el merge falla si ya cambio
+        Patient current = repo.findById(id).orElseThrow(() -> new ResourceNotFoundException("Patient not found: " + id));
+        if (patient.getVersion() == null) {
+            patient.setVersion(current.getVersion());
+        }
+        Patient saved = repo.save(patient);
+        //si el DNI cambio, la entrada anterior se corrige en findByDni al detectar que ya no coincide
+        indexDni(saved.getDni(), saved.getIdPatient());
+        written(id);
+        return saved;
+    }
+
+    //Solo se actualizan los atributos presentes en el body; "version" (opcional) activa el control optimista
+    @Override
+    public Patient patch(Integer id, Map<String, Object> changes) {
+        Map<String, Object> fields = new LinkedHashMap<>(changes);
+        fields.remove("idPatient");
+        Object version = fields.remove("version");
+        if (version != null && !(version instanceof Number)) {
+            throw new InvalidPatchException("version must be a number");
+        }
+        Long expectedVersion = version == null ? null : ((Number) version).longValue();
+
+        fields.forEach((field, value) -> {
+            if (value != null && !(value instanceof String)) {
+                throw new InvalidPatchException(field + " must be a string");
+            }
+            String error = PatientValidator.validateField(field, (String) value);
+            if (error != null) {
+                throw new InvalidPatchException(error);
+            }
+        });
+        if (fields.isEmpty()) {
+            return repo.findById(id).orElseThrow(() -> new ResourceNotFoundException("Patient not found: " + id));
+        }
+
+        Optional<Patient> patched = repo.patch(id, fields, expectedVersion);
+        if (patched.isEmpty()) {
+            if (expectedVersion != null && repo.existsById(id)) {
+                throw new OptimisticLockingFailureException("Patient " + id + " is no longer at version " + expectedVersion);
+            }
+            throw new ResourceNotFoundException("Patient not found: " + id);
+        }
+        if (fields.containsKey("dni")) {
+            indexDni(patched.get().getDni(), id);
+        }
+        written(id);
+        return patched.get();
     }
 
     @Override
@@ -32,14 +138,237 @@ public class PatientServiceImpl implements IPatientService {
         return repo.findAll();
     }
 
+    //Los listados usan PatientView en transacciones readOnly (flush MANUAL, sin dirty checking)
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<PatientView> findPage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        //pido un registro extra para saber si existe una pagina siguiente sin hacer COUNT(*)
+        List<PatientView> rows = repo.findByIdPatientGreaterThanOrderByIdPatientAsc(afterId(cursor), Limit.of(pageSize + 1), PatientView.class);
+        return keysetPage(rows, pageSize, PatientView::idPatient);
+    }
+
+    //?fields=: mismo keyset pero el SELECT solo trae las columnas pedidas
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<Map<String, Object>> findPage(String cursor, int size, Set<String> fields) {
+        int pageSize = pageSize(size);
+        List<Map<String, Object>> rows = repo.findPageFields(fields, afterId(cursor), pageSize + 1);
+        return keysetPage(rows, pageSize, row -> (Integer) row.get(PatientColumns.ID));
+    }
+
+    //Resultados ordenados por relevancia: el cursor guarda el offset de la siguiente pagina
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<PatientView> search(String q, String cursor, int size) {
+        int pageSize = pageSize(size);
+        int offset = offset(cursor);
+        String term = SearchText.normalize(q);
+        if (term.isEmpty()) {
+            return new CursorPage<>(List.of(), null, 0);
+        }
+
+        List<PatientView> rows = SearchText.isDigits(term)
+                ? repo.searchByNumberPrefix(term, pageSize + 1, offset)
+                : repo.searchByText(term, pageSize + 1, offset);
+        return offsetPage(rows, pageSize, offset);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<Map<String, Object>> search(String q, String cursor, int size, Set<String> fields) {
+        int pageSize = pageSize(size);
+        int offset = offset(cursor);
+        String term = SearchText.normalize(q);
+        if (term.isEmpty()) {
+            return new CursorPage<>(List.of(), null, 0);
+        }
+
+        List<Map<String, Object>> rows = SearchText.isDigits(term)
+                ? repo.searchByNumberPrefixFields(fields, term, pageSize + 1, offset)
+                : repo.searchByTextFields(fields, term, pageSize + 1, offset);
+        return offsetPage(rows, pageSize, offset);
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private static int afterId(String cursor) {
+        return cursor == null || cursor.isBlank() ? 0 : CursorCodec.decode(cursor);
+    }
+
+    private static int offset(String cursor) {
+        return cursor == null || cursor.isBlank() ? 0 : CursorCodec.decodeOffset(cursor);
+    }
+
+    private static <T> CursorPage<T> keysetPage(List<T> rows, int pageSize, Function<T, Integer> idOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null, rows.size());
+        }
+        List<T> content = rows.subList(0, pageSize);
+        String next = CursorCodec.encode(idOf.apply(content.get(pageSize - 1)));
+        return new CursorPage<>(content, next, pageSize);
+    }
+
+    private static <T> CursorPage<T> offsetPage(List<T> rows, int pageSize, int offset) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null, rows.size());
+        }
+        return new CursorPage<>(rows.subList(0, pageSize), CursorCodec.encodeOffset(offset + pageSize), pageSize);
+    }
+
+    //La transaccion mantiene abierto el cursor de Postgres mientras se recorre; como son PatientView y no
+    //entidades, el contexto de persistencia no crece con la tabla
+    @Transactional(readOnly = true)
+    @Override
+    public void forEachPatient(Consumer<PatientView> action) {
+        try (Stream<PatientView> patients = repo.streamAll()) {
+            patients.forEach(action);
+        }
+    }
+
+    //no se cachea el new Patient() que se devuelve cuando no existe el id
     @Override
     public Patient findById(Integer id) {
-        return repo.findById(id).orElse(new Patient());
+        Patient cached = entityCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        //la generacion se toma antes de la BD: si una escritura llega mientras tanto, no se guarda lo leido
+        long generation = entityCache.generation();
+        //si el cache falla para el mismo id en varios hilos a la vez, solo uno va a la BD
+        Optional<Patient> loaded = lookups.execute(id, () -> repo.findById(id));
+        if (loaded.isEmpty()) {
+            return new Patient();
+        }
+        entityCache.putIfCurrent(id, loaded.get(), generation);
+        return loaded.get();
+    }
+
+    //?fields= en el detalle: va directo a la BD con las columnas pedidas (no pasa por el cache de entidades)
+    @Transactional(readOnly = true)
+    @Override
+    public Map<String, Object> findById(Integer id, Set<String> fields) {
+        return repo.findByIdFields(fields, id).orElseGet(Map::of);
+    }
+
+    //Busqueda de recepcion por DNI: el indice en memoria da el id y findById (cacheado) trae el paciente
+    @Override
+    public Patient findByDni(String dni) {
+        if (dniIndex.isReady()) {
+            int id = dniIndex.get(dni);
+            if (id != DniIndex.NO_ID) {
+                Patient patient = findById(id);
+                if (dni.equals(patient.getDni())) {
+                    return patient;
+                }
+                //paciente eliminado o DNI modificado: se descarta la entrada y se consulta la BD
+                dniIndex.remove(dni, id);
+            }
+        }
+        //un DNI ausente del indice no prueba que no exista: otra instancia, el generador o SQL manual pudieron insertarlo
+        Patient patient = repo.findFirstByDniOrderByIdPatientAsc(dni).orElse(new Patient());
+        if (patient.getIdPatient() != null && dniIndex.isReady()) {
+            dniIndex.putIfAbsent(patient.getDni(), patient.getIdPatient());
+        }
+        return patient;
+    }
+
+    //Con el indice deshabilitado (o aun sin construir) no se escribe en el: buildDniIndex() carga la tabla completa,
+    //y un indice que nunca se marca listo solo creceria con cada alta
+    private void indexDni(String dni, Integer id) {
+        if (dniIndex.isReady()) {
+            dniIndex.put(dni, id);
+        }
+    }
+
+    //Un solo SELECT ... IN para todo el lote; el orden de la respuesta es el de la solicitud
+    @Transactional(readOnly = true)
+    @Override
+    public BatchResult<PatientView> findByIds(List<Integer> ids) {
+        Set<Integer> unique = batchIds(ids);
+        return inRequestOrder(unique, repo.findByIdPatientIn(unique, PatientView.class), PatientView::idPatient);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BatchResult<Map<String, Object>> findByIds(List<Integer> ids, Set<String> fields) {
+        Set<Integer> unique = batchIds(ids);
+        return inRequestOrder(unique, repo.findByIdsFields(fields, unique), row -> (Integer) row.get(PatientColumns.ID));
+    }
+
+    private Set<Integer> batchIds(List<Integer> ids) {
+        LinkedHashSet<Integer> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        if (unique.isEmpty()) {
+            throw new InvalidBatchException("At least one id is required");
+        }
+        if (unique.size() > maxBatchSize) {
+            throw new InvalidBatchException("At most " + maxBatchSize + " ids are allowed per request");
+        }
+        return unique;
+    }
+
+    private static <T> BatchResult<T> inRequestOrder(Set<Integer> ids, List<T> rows, Function<T, Integer> idOf) {
+        Map<Integer, T> found = new HashMap<>();
+        for (T row : rows) {
+            found.put(idOf.apply(row), row);
+        }
+
+        List<T> content = new ArrayList<>(found.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            T row = found.get(id);
+            if (row != null) {
+                content.add(row);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchResult<>(content, missing);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildDniIndex() {
+        if (!dniIndexEnabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        //putIfAbsent: si un alta llega mientras se construye, su valor no se pisa
+        try (Stream<PatientDni> dnis = repo.streamDnis()) {
+            dnis.forEach(row -> dniIndex.putIfAbsent(row.dni(), row.idPatient()));
+        }
+        dniIndex.markReady();
+        log.info("DNI index built: {} entries, {} MB in {} ms", dniIndex.size(),
+                dniIndex.memoryBytes() / (1024 * 1024), (System.nanoTime() - start) / 1_000_000);
     }
 
     @Override
     public void delete(Integer id) {
+        //el DNI se toma del cache de entidades (o la BD) antes de borrar, para quitarlo del indice
+        Patient deleted = dniIndex.isReady() ? findById(id) : null;
         repo.deleteById(id);
+        if (deleted != null && deleted.getIdPatient() != null) {
+            dniIndex.remove(deleted.getDni(), id);
+        }
+        written(id);
+    }
+
+    //Cache de entidades y respuestas (ver PatientEntityCache). Dentro de una transaccion se hace al confirmar; antes,
+    //otra lectura volveria a cargar la fila sin el cambio
+    private void written(Integer id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityCache.invalidate(id);
+                }
+            });
+        } else {
+            entityCache.invalidate(id);
+        }
     }
 
     /*
@@ -0,0 +1,99 @@
+package com.mitocode.sqllog;
+
+import com.mitocode.util.BoundedRing;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//Registro de SQL fuera del hilo de la solicitud. record() decide si la sentencia se registra (lenta: siempre;
+//el resto: con probabilidad sampleRate) y la deja en un BoundedRing; un hilo aparte la escribe en el logger "sql".
+//Si el buffer esta lleno la sentencia se descarta y se cuenta en dropped: nunca se bloquea a la BD por el log
+@Slf4j(topic = "sql")
+public final class SqlLog implements AutoCloseable {
+
+    record Entry(String sql, int binds, int batch, long nanos, long rows) {
+    }
+
+    private static final int MAX_SQL_LENGTH = 2000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final BoundedRing<Entry> ring;
+    private final double sampleRate;
+    private final long slowNanos;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public SqlLog(int bufferSize, double sampleRate, long slowNanos) {
+        this.ring = new BoundedRing<>(bufferSize);
+        this.sampleRate = sampleRate;
+        this.slowNanos = slowNanos;
+        this.writer = new Thread(this::drain, "sql-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    //rows: filas leidas o modificadas; -1 si el driver no lo informa
+    void record(String sql, int binds, int batch, long nanos, long rows) {
+        if (nanos < slowNanos && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        if (!ring.offer(new Entry(sql, binds, batch, nanos, rows))) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (running || ring.size() > 0) {
+            Entry entry = ring.poll();
+            if (entry == null) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            write(entry);
+        }
+    }
+
+    private void write(Entry entry) {
+        String sql = entry.sql() == null ? "" : entry.sql();
+        if (sql.length() > MAX_SQL_LENGTH) {
+            sql = sql.substring(0, MAX_SQL_LENGTH) + "...";
+        }
+        double millis = entry.nanos() / 1e6;
+        if (entry.nanos() >= slowNanos) {
+            log.warn("slow {} ms rows={} binds={} batch={} | {}", String.format("%.3f", millis),
+                    entry.rows(), entry.binds(), entry.batch(), sql);
+        } else {
+            log.info("{} ms rows={} binds={} batch={} | {}", String.format("%.3f", millis),
+                    entry.rows(), entry.binds(), entry.batch(), sql);
+        }
+        written.increment();
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public int pending() {
+        return ring.size();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    //escribe lo que quedo en el buffer antes de terminar
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
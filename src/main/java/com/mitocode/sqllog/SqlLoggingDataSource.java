@@ -0,0 +1,230 @@
+package com.mitocode.sqllog;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+//Envuelve las conexiones del pool para medir cada sentencia: texto, parametros enlazados, filas de batch,
+//duracion y filas (afectadas o leidas). En las consultas la duracion va desde el execute hasta que se cierra el
+//ResultSet, asi incluye la lectura de las filas. La medicion es en el hilo de la solicitud; el log lo escribe SqlLog
+public class SqlLoggingDataSource extends DelegatingDataSource {
+
+    private final SqlLog sqlLog;
+
+    public SqlLoggingDataSource(DataSource target, SqlLog sqlLog) {
+        super(target);
+        this.sqlLog = sqlLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlLoggingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    //equals/hashCode por identidad del proxy: Hibernate y Spring guardan conexiones y sentencias en mapas
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> args != null && args.length == 1 && proxy == args[0] ? Boolean.TRUE : Boolean.FALSE;
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = SqlLoggingDataSource.invoke(target, method, args);
+            switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> {
+                    Class<?> type = result instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+                    return proxy(type, new StatementHandler((Statement) result, (String) args[0]));
+                }
+                case "createStatement" -> {
+                    return proxy(Statement.class, new StatementHandler((Statement) result, null));
+                }
+                default -> {
+                    return result;
+                }
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private String sql;
+        private int binds;
+        private int batch;
+        private ResultSetHandler openResult;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                binds++;
+            } else if (name.equals("addBatch")) {
+                batch++;
+                if (args != null && args.length == 1) {
+                    sql = (String) args[0];
+                }
+            } else if (name.equals("close")) {
+                reportOpenResult();
+            }
+            return SqlLoggingDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String text = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            int executedBinds = binds;
+            int executedBatch = batch;
+            binds = 0;
+            batch = 0;
+            reportOpenResult();
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SqlLoggingDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                sqlLog.record(text, executedBinds, executedBatch, System.nanoTime() - start, -1);
+                throw e;
+            }
+
+            if (result instanceof ResultSet resultSet) {
+                openResult = new ResultSetHandler(resultSet, text, executedBinds, start);
+                return proxy(ResultSet.class, openResult);
+            }
+            sqlLog.record(text, executedBinds, executedBatch, System.nanoTime() - start, rows(result));
+            return result;
+        }
+
+        //el ResultSet se cierra implicitamente al cerrar o re-ejecutar la sentencia
+        private void reportOpenResult() {
+            if (openResult != null) {
+                openResult.report();
+                openResult = null;
+            }
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Number n) {
+            return n.longValue();
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                if (count < 0) {
+                    return -1; //SUCCESS_NO_INFO
+                }
+                total += count;
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            for (long count : counts) {
+                if (count < 0) {
+                    return -1;
+                }
+                total += count;
+            }
+            return total;
+        }
+        return -1; //execute() sin resultado conocido
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final String sql;
+        private final int binds;
+        private final long start;
+        private long rows;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet target, String sql, int binds, long start) {
+            this.target = target;
+            this.sql = sql;
+            this.binds = binds;
+            this.start = start;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = SqlLoggingDataSource.invoke(target, method, args);
+            switch (method.getName()) {
+                case "next" -> {
+                    if (Boolean.TRUE.equals(result)) {
+                        rows++;
+                    }
+                }
+                case "close" -> report();
+                default -> {
+                }
+            }
+            return result;
+        }
+
+        void report() {
+            if (!reported) {
+                reported = true;
+                sqlLog.record(sql, binds, 0, System.nanoTime() - start, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mitocode.util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+//Limita el trabajo concurrente que llega a la BD. Hasta maxConcurrent solicitudes entran directo; las demas esperan
+//en una cola acotada con tiempo maximo (maxWait). Control al estilo CoDel: si el tiempo en cola (sojourn) se mantiene
+//por encima de target durante todo un interval, se entra en modo descarte y las solicitudes que tendrian que
+//esperar se rechazan al instante (falla rapida en vez de timeouts en cadena). Se sale cuando el sojourn baja de target
+public final class AdmissionController {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final long maxWaitNanos;
+    private final LongConsumer sojournListener;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long firstAboveTarget;
+    private volatile boolean dropping;
+
+    public AdmissionController(int maxConcurrent, int maxQueue, long targetNanos, long intervalNanos,
+                               long maxWaitNanos, LongConsumer sojournListener) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.targetNanos = targetNanos;
+        this.intervalNanos = intervalNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.sojournListener = sojournListener;
+    }
+
+    //true si la solicitud puede continuar; en ese caso hay que llamar a release() al terminar
+    public boolean tryAcquire() throws InterruptedException {
+        long start = System.nanoTime();
+        if (waiting.get() == 0 && permits.tryAcquire()) {
+            onSojourn(0, start);
+            admitted.increment();
+            return true;
+        }
+        if (dropping || waiting.get() >= maxQueue) {
+            rejected.increment();
+            return false;
+        }
+
+        waiting.incrementAndGet();
+        try {
+            boolean acquired = permits.tryAcquire(dropping ? targetNanos : maxWaitNanos, TimeUnit.NANOSECONDS);
+            long now = System.nanoTime();
+            onSojourn(now - start, now);
+            if (acquired) {
+                admitted.increment();
+            } else {
+                rejected.increment();
+            }
+            return acquired;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    private void onSojourn(long sojourn, long now) {
+        sojournListener.accept(sojourn);
+        if (sojourn < targetNanos) {
+            firstAboveTarget = 0;
+            dropping = false;
+        } else if (firstAboveTarget == 0) {
+            firstAboveTarget = now + intervalNanos;
+        } else if (now >= firstAboveTarget) {
+            dropping = true;
+        }
+    }
+
+    public int queueDepth() {
+        return waiting.get();
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public long admitted() {
+        return admitted.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public boolean isDropping() {
+        return dropping;
+    }
+}
@@ -0,0 +1,70 @@
+package com.mitocode.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Cola circular acotada sin bloqueos: varios productores, un solo consumidor. offer() nunca espera: si el buffer
+//esta lleno devuelve false y el elemento se descarta (el que produce no se frena por el que consume).
+//Cada slot tiene un numero de secuencia que indica si esta libre para la vuelta actual o ya tiene un elemento
+public final class BoundedRing<T> {
+
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    //solo lo modifica el hilo consumidor; volatile para que size() se pueda leer desde otros hilos (metricas)
+    private volatile long head;
+
+    public BoundedRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = element;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                //el consumidor todavia no libera este slot de la vuelta anterior: lleno
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    //null si esta vacio. Solo desde el hilo consumidor
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        T element = (T) buffer[index];
+        buffer[index] = null;
+        sequences.lazySet(index, head + buffer.length);
+        head++;
+        return element;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
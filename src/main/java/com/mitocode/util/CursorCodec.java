@@ -0,0 +1,56 @@
+package com.mitocode.util;
+
+import com.mitocode.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Codifica el ultimo id de la pagina como un token opaco (Base64 URL-safe) para que el cliente no dependa del formato.
+//Los cursores de busqueda guardan un offset con otro prefijo: un cursor de GET /patients no sirve en /search
+public final class CursorCodec {
+
+    private static final String PREFIX = "p:";
+    private static final String OFFSET_PREFIX = "o:";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Integer lastId) {
+        return encode(PREFIX, lastId);
+    }
+
+    public static Integer decode(String cursor) {
+        return decode(PREFIX, cursor);
+    }
+
+    public static String encodeOffset(int offset) {
+        return encode(OFFSET_PREFIX, offset);
+    }
+
+    //un offset negativo llegaria a Postgres como OFFSET -1 (error 500)
+    public static int decodeOffset(String cursor) {
+        int offset = decode(OFFSET_PREFIX, cursor);
+        if (offset < 0) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+        return offset;
+    }
+
+    private static String encode(String prefix, int value) {
+        byte[] raw = (prefix + value).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    private static Integer decode(String prefix, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(prefix)) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return Integer.valueOf(raw.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            //NumberFormatException tambien es IllegalArgumentException
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.mitocode.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Indice en memoria DNI -> idPatient. El DNI de 8 digitos se guarda como int y la tabla es de direccionamiento abierto
+//(sondeo lineal) sobre dos int[]: ~8 bytes por slot, 10M de DNIs caben en 2^24 slots = 128 MB, sin objetos por entrada.
+//Si hay DNIs repetidos en la tabla se conserva el primero que se registro
+public final class DniIndex {
+
+    public static final int NO_ID = -1;
+
+    private static final int EMPTY = -1;
+    private static final float MAX_LOAD = 0.75f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private volatile boolean ready;
+
+    public DniIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    //"01234567" -> 1234567; -1 si no son exactamente 8 digitos
+    public static int pack(String dni) {
+        if (dni == null || dni.length() != 8) {
+            return EMPTY;
+        }
+        int packed = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = dni.charAt(i);
+            if (c < '0' || c > '9') {
+                return EMPTY;
+            }
+            packed = packed * 10 + (c - '0');
+        }
+        return packed;
+    }
+
+    public int get(String dni) {
+        int key = pack(dni);
+        if (key == EMPTY) {
+            return NO_ID;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(key);
+            return slot < 0 ? NO_ID : values[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String dni, int idPatient) {
+        write(dni, idPatient, true);
+    }
+
+    public void putIfAbsent(String dni, int idPatient) {
+        write(dni, idPatient, false);
+    }
+
+    //solo borra si el DNI apunta a ese paciente
+    public void remove(String dni, int idPatient) {
+        int key = pack(dni);
+        if (key == EMPTY) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = find(key);
+            if (slot >= 0 && values[slot] == idPatient) {
+                removeAt(slot);
+                size--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return 8L * keys.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    private void write(String dni, int idPatient, boolean overwrite) {
+        int key = pack(dni);
+        if (key == EMPTY) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int mask = keys.length - 1;
+            int slot = home(key, mask);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    if (overwrite) {
+                        values[slot] = idPatient;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = idPatient;
+            if (++size > keys.length * MAX_LOAD) {
+                grow();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = home(key, mask);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    //borrado con desplazamiento hacia atras: no deja marcas de borrado que alarguen las busquedas
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int i = (slot + 1) & mask;
+        while (keys[i] != EMPTY) {
+            int home = home(keys[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = home(oldKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int home(int key, int mask) {
+        //los DNIs son correlativos: se mezclan los bits para repartirlos en la tabla
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mitocode.util;
+
+import com.mitocode.exception.InvalidFieldsException;
+import com.mitocode.repo.PatientColumns;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+//?fields=firstName,lastName -> [idPatient, firstName, lastName]. idPatient siempre va (lo usan el cursor y el cliente)
+public final class PatientFields {
+
+    private PatientFields() {
+    }
+
+    //null cuando no se envio ?fields= (respuesta completa)
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        parsed.add(PatientColumns.ID);
+        for (String field : fields.split(",")) {
+            String attribute = field.trim();
+            if (attribute.isEmpty()) {
+                continue;
+            }
+            if (!PatientColumns.isKnown(attribute)) {
+                throw new InvalidFieldsException("Unknown field: " + attribute);
+            }
+            parsed.add(attribute);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,60 @@
+package com.mitocode.util;
+
+import com.mitocode.model.Patient;
+
+import java.util.regex.Pattern;
+
+//Reglas de las columnas de Patient (nullable/length) verificadas antes de llegar a la BD
+public final class PatientValidator {
+
+    private static final Pattern DNI = Pattern.compile("\\d{8}");
+    private static final Pattern PHONE = Pattern.compile("\\d{1,9}");
+
+    private PatientValidator() {
+    }
+
+    //Devuelve el primer error encontrado o null si el paciente es valido
+    public static String validate(Patient patient) {
+        String error = required("firstName", patient.getFirstName(), 70);
+        if (error == null) error = required("lastName", patient.getLastName(), 70);
+        if (error == null && (patient.getDni() == null || !DNI.matcher(patient.getDni()).matches())) {
+            error = "dni must have exactly 8 digits";
+        }
+        if (error == null && patient.getAddress() != null && patient.getAddress().length() > 150) {
+            error = "address must have at most 150 characters";
+        }
+        if (error == null && (patient.getPhone() == null || !PHONE.matcher(patient.getPhone()).matches())) {
+            error = "phone must have between 1 and 9 digits";
+        }
+        if (error == null) error = required("email", patient.getEmail(), 55);
+        if (error == null && patient.getEmail().indexOf('@') < 1) {
+            error = "email is not valid";
+        }
+        return error;
+    }
+
+    //Validacion de un solo atributo (PATCH)
+    public static String validateField(String field, String value) {
+        return switch (field) {
+            case "firstName", "lastName" -> required(field, value, 70);
+            case "dni" -> value == null || !DNI.matcher(value).matches() ? "dni must have exactly 8 digits" : null;
+            case "address" -> value != null && value.length() > 150 ? "address must have at most 150 characters" : null;
+            case "phone" -> value == null || !PHONE.matcher(value).matches() ? "phone must have between 1 and 9 digits" : null;
+            case "email" -> {
+                String error = required(field, value, 55);
+                yield error == null && value.indexOf('@') < 1 ? "email is not valid" : error;
+            }
+            default -> "Unknown attribute " + field;
+        };
+    }
+
+    private static String required(String field, String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            return field + " is required";
+        }
+        if (value.length() > maxLength) {
+            return field + " must have at most " + maxLength + " characters";
+        }
+        return null;
+    }
+}
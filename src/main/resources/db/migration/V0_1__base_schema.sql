@@ -0,0 +1,86 @@
+-- Esquema inicial para una BD vacia: las tablas que antes creaba ddl-auto=update, tal como estaban antes de V1
+-- (sin secuencias ni version, que agregan V1 y V4). En una BD que ya tenia el esquema, Flyway la marca como
+-- baseline 0 (spring.flyway.baseline-version) y este script y V1..V5 se ejecutan sin efecto sobre lo que ya existe.
+-- Hibernate valida este esquema al iniciar (ddl-auto=validate): los tipos y largos siguen a las anotaciones @Column
+
+CREATE TABLE IF NOT EXISTS patient (
+    id_patient integer NOT NULL PRIMARY KEY,
+    first_name varchar(70) NOT NULL,
+    last_name varchar(70) NOT NULL,
+    dni varchar(8) NOT NULL,
+    address varchar(150),
+    phone varchar(9) NOT NULL,
+    email varchar(55) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS medic (
+    id_medic integer NOT NULL PRIMARY KEY,
+    first_name varchar(70) NOT NULL,
+    last_name varchar(70) NOT NULL,
+    cmp varchar(12) NOT NULL,
+    photo_url varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS specialty (
+    id_specialty integer NOT NULL PRIMARY KEY,
+    name varchar(50) NOT NULL,
+    description varchar(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS exam (
+    id_exam integer NOT NULL PRIMARY KEY,
+    name varchar(50) NOT NULL,
+    description varchar(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS consult (
+    id_consult integer NOT NULL PRIMARY KEY,
+    id_patient integer NOT NULL CONSTRAINT fk_consult_patient REFERENCES patient,
+    id_medic integer NOT NULL CONSTRAINT fk_consult_medic REFERENCES medic,
+    id_specialty integer NOT NULL CONSTRAINT fk_consult_specialty REFERENCES specialty,
+    num_consult varchar(3) NOT NULL,
+    consult_date timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS consult_detail (
+    id_detail integer NOT NULL PRIMARY KEY,
+    id_consult integer NOT NULL CONSTRAINT fk_detail_consult REFERENCES consult,
+    diagnosis varchar(70) NOT NULL,
+    treatment varchar(300) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS consult_exam (
+    id_consult integer NOT NULL REFERENCES consult,
+    id_exam integer NOT NULL REFERENCES exam,
+    PRIMARY KEY (id_consult, id_exam)
+);
+
+CREATE TABLE IF NOT EXISTS role (
+    id_role integer NOT NULL PRIMARY KEY,
+    name varchar(50) NOT NULL,
+    description varchar(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_data (
+    id_user integer NOT NULL PRIMARY KEY,
+    username varchar(60) NOT NULL UNIQUE,
+    password varchar(60) NOT NULL,
+    enabled boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_role (
+    id_user integer NOT NULL REFERENCES user_data,
+    id_role integer NOT NULL REFERENCES role
+);
+
+CREATE TABLE IF NOT EXISTS menu (
+    id_menu integer NOT NULL PRIMARY KEY,
+    icon varchar(20) NOT NULL,
+    name varchar(20) NOT NULL,
+    url varchar(50) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS menu_role (
+    id_menu integer NOT NULL REFERENCES menu,
+    id_role integer NOT NULL REFERENCES role
+);
@@ -0,0 +1,34 @@
+-- Migra las tablas creadas con GenerationType.IDENTITY a secuencias pooled (INCREMENT BY = IdAllocation.SIZE).
+-- Ejecutar ANTES de levantar la version que usa @SequenceGenerator; si no, ddl-auto=update crea las secuencias
+-- empezando en 1 y los nuevos ids chocan con los existentes.
+-- Con el optimizador pooled, nextval devuelve el tope del bloque: los ids usados son (valor - 49 .. valor),
+-- por eso la secuencia se posiciona en MAX(id) + 50.
+-- Nunca retrocede (GREATEST con last_value): se puede volver a ejecutar sobre una BD en uso sin entregar bloques que
+-- una instancia ya tiene reservados.
+
+CREATE SEQUENCE IF NOT EXISTS patient_seq INCREMENT BY 50;
+SELECT setval('patient_seq', GREATEST(COALESCE((SELECT MAX(id_patient) FROM patient), 0), (SELECT last_value FROM patient_seq)) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS medic_seq INCREMENT BY 50;
+SELECT setval('medic_seq', GREATEST(COALESCE((SELECT MAX(id_medic) FROM medic), 0), (SELECT last_value FROM medic_seq)) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS specialty_seq INCREMENT BY 50;
+SELECT setval('specialty_seq', GREATEST(COALESCE((SELECT MAX(id_specialty) FROM specialty), 0), (SELECT last_value FROM specialty_seq)) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS exam_seq INCREMENT BY 50;
+SELECT setval('exam_seq', GREATEST(COALESCE((SELECT MAX(id_exam) FROM exam), 0), (SELECT last_value FROM exam_seq)) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS consult_seq INCREMENT BY 50;
+SELECT setval('consult_seq', GREATEST(COALESCE((SELECT MAX(id_consult) FROM consult), 0), (SELECT last_value FROM consult_seq)) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS consult_detail_seq INCREMENT BY 50;
+SELECT setval('consult_detail_seq', GREATEST(COALESCE((SELECT MAX(id_detail) FROM consult_detail), 0), (SELECT last_value FROM consult_detail_seq)) + 50, false);
+
+-- Las columnas siguen siendo "generated by default as identity", lo que permite insertar ids explicitos;
+-- se quita la identidad para que solo las secuencias asignen ids.
+ALTER TABLE patient ALTER COLUMN id_patient DROP IDENTITY IF EXISTS;
+ALTER TABLE medic ALTER COLUMN id_medic DROP IDENTITY IF EXISTS;
+ALTER TABLE specialty ALTER COLUMN id_specialty DROP IDENTITY IF EXISTS;
+ALTER TABLE exam ALTER COLUMN id_exam DROP IDENTITY IF EXISTS;
+ALTER TABLE consult ALTER COLUMN id_consult DROP IDENTITY IF EXISTS;
+ALTER TABLE consult_detail ALTER COLUMN id_detail DROP IDENTITY IF EXISTS;
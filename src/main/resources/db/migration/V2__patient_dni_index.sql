@@ -0,0 +1,2 @@
+-- Busqueda de DNIs ya registrados durante la importacion masiva (POST /patients/import)
+CREATE INDEX IF NOT EXISTS idx_patient_dni ON patient (dni);
@@ -0,0 +1,19 @@
+-- GET /patients/search: prefijo sobre dni/phone (btree pattern_ops) y trigramas sobre nombre, apellido y email
+-- sin distinguir mayusculas ni tildes (GIN pg_trgm sobre una expresion inmutable)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() es STABLE; con el diccionario explicito se puede declarar IMMUTABLE y usar en un indice
+CREATE OR REPLACE FUNCTION patient_search_text(first_name text, last_name text, email text)
+    RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+    SELECT lower(public.unaccent('public.unaccent'::regdictionary,
+            coalesce(first_name, '') || ' ' || coalesce(last_name, '') || ' ' || coalesce(email, '')))
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_patient_search_trgm
+    ON patient USING gin (patient_search_text(first_name, last_name, email) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_patient_dni_prefix ON patient (dni varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_patient_phone_prefix ON patient (phone varchar_pattern_ops);
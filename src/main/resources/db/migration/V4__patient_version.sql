@@ -0,0 +1,2 @@
+-- Bloqueo optimista (@Version) de Patient: las filas existentes empiezan en la version 0
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
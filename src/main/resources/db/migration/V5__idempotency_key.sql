@@ -0,0 +1,12 @@
+-- Respuestas guardadas por Idempotency-Key cuando patient.idempotency.persistent=true (sobreviven reinicios y
+-- se comparten entre instancias). Las filas vencidas las borra IdempotencyServiceImpl.purgeExpired()
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    scope varchar(50) NOT NULL,
+    idem_key varchar(255) NOT NULL,
+    request_hash varchar(64) NOT NULL,
+    response bytea NOT NULL,
+    created_at timestamp NOT NULL DEFAULT now(),
+    PRIMARY KEY (scope, idem_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_created_at ON idempotency_key (created_at);
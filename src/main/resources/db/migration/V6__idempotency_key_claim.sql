@@ -0,0 +1,6 @@
+-- IdempotencyServiceImpl reclama la clave (INSERT sin respuesta) antes de ejecutar la accion y guarda la respuesta
+-- en la misma transaccion: response queda NULL solo mientras esa transaccion no confirma.
+-- created_at pasa a timestamptz: el vencimiento se compara con now() de la BD, sin depender de la zona de la sesion
+-- (los valores existentes se interpretan en la zona de la sesion, la misma con la que now() los guardo)
+ALTER TABLE idempotency_key ALTER COLUMN response DROP NOT NULL;
+ALTER TABLE idempotency_key ALTER COLUMN created_at TYPE timestamptz;
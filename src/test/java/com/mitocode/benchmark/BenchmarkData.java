@@ -0,0 +1,31 @@
+package com.mitocode.benchmark;
+
+import com.mitocode.model.Patient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Pacientes validos y deterministas (mismo contenido en cada corrida) para los benchmarks
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Patient> patients(int count) {
+        List<Patient> patients = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            patients.add(patient(i));
+        }
+        return patients;
+    }
+
+    static Patient patient(int id) {
+        return new Patient(id, "Nombre" + id, "Apellido" + id, dni(id),
+                "Av. Siempre Viva " + id, String.valueOf(900_000_000 + id % 100_000_000),
+                "paciente" + id + "@mail.com", 0L);
+    }
+
+    static String dni(int id) {
+        return String.format("%08d", 10_000_000 + id);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mitocode.benchmark;
+
+import com.mitocode.dto.PatientDni;
+import com.mitocode.dto.PatientView;
+import com.mitocode.model.Patient;
+import com.mitocode.repo.IPatientRepo;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//IPatientRepo en memoria para medir PatientServiceImpl sin BD. Solo implementa los metodos que usan los
+//benchmarks; el resto lanza UnsupportedOperationException
+final class InMemoryPatientRepo {
+
+    private final ConcurrentSkipListMap<Integer, Patient> rows = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Integer> dnis = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private InMemoryPatientRepo() {
+    }
+
+    static IPatientRepo create(List<Patient> patients) {
+        InMemoryPatientRepo store = new InMemoryPatientRepo();
+        patients.forEach(store::save);
+        return (IPatientRepo) Proxy.newProxyInstance(IPatientRepo.class.getClassLoader(),
+                new Class<?>[]{IPatientRepo.class},
+                (proxy, method, args) -> store.invoke(method.getName(), args));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object invoke(String method, Object[] args) {
+        return switch (method) {
+            case "findById" -> Optional.ofNullable(rows.get((Integer) args[0]));
+            case "existsById" -> rows.containsKey((Integer) args[0]);
+            case "save" -> save((Patient) args[0]);
+            case "deleteById" -> {
+                Patient removed = rows.remove((Integer) args[0]);
+                if (removed != null) {
+                    dnis.remove(removed.getDni(), removed.getIdPatient());
+                }
+                yield null;
+            }
+            case "findByIdPatientGreaterThanOrderByIdPatientAsc" ->
+                    page((Integer) args[0], (Limit) args[1], (Class<?>) args[2]);
+            case "findFirstByDniOrderByIdPatientAsc" ->
+                    Optional.ofNullable(dnis.get((String) args[0])).map(rows::get);
+            case "findByIdPatientIn" -> byIds((Collection<Integer>) args[0], (Class<?>) args[1]);
+            case "streamDnis" -> rows.values().stream().map(p -> new PatientDni(p.getIdPatient(), p.getDni()));
+            case "hashCode" -> System.identityHashCode(this);
+            case "equals" -> args[0] == this;
+            case "toString" -> "InMemoryPatientRepo(" + rows.size() + ")";
+            default -> throw new UnsupportedOperationException(method);
+        };
+    }
+
+    private Patient save(Patient patient) {
+        if (patient.getIdPatient() == null) {
+            patient.setIdPatient(sequence.incrementAndGet());
+        } else {
+            sequence.accumulateAndGet(patient.getIdPatient(), Math::max);
+        }
+        patient.setVersion(patient.getVersion() == null ? 0 : patient.getVersion() + 1);
+        rows.put(patient.getIdPatient(), patient);
+        dnis.putIfAbsent(patient.getDni(), patient.getIdPatient());
+        return patient;
+    }
+
+    private List<Object> page(Integer afterId, Limit limit, Class<?> type) {
+        List<Object> page = new ArrayList<>(limit.max());
+        for (Patient patient : rows.tailMap(afterId, false).values()) {
+            if (page.size() == limit.max()) {
+                break;
+            }
+            page.add(project(patient, type));
+        }
+        return page;
+    }
+
+    private List<Object> byIds(Collection<Integer> ids, Class<?> type) {
+        List<Object> found = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Patient patient = rows.get(id);
+            if (patient != null) {
+                found.add(project(patient, type));
+            }
+        }
+        return found;
+    }
+
+    private static Object project(Patient p, Class<?> type) {
+        if (type == PatientView.class) {
+            return new PatientView(p.getIdPatient(), p.getFirstName(), p.getLastName(), p.getDni(),
+                    p.getAddress(), p.getPhone(), p.getEmail(), p.getVersion());
+        }
+        return p;
+    }
+}
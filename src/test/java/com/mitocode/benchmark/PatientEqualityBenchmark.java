@@ -0,0 +1,68 @@
+package com.mitocode.benchmark;
+
+import com.mitocode.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//equals/hashCode que genera Lombok en Patient (@EqualsAndHashCode solo con idPatient) y su uso en un HashSet,
+//que es como Hibernate y los servicios los usan
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientEqualityBenchmark {
+
+    private static final int SET_SIZE = 10_000;
+
+    private Patient patient;
+    private Patient sameId;
+    private Patient otherId;
+    private Set<Patient> set;
+    private List<Patient> patients;
+    private int next;
+
+    @Setup
+    public void setup() {
+        patient = BenchmarkData.patient(42);
+        sameId = BenchmarkData.patient(42);
+        otherId = BenchmarkData.patient(43);
+        patients = BenchmarkData.patients(SET_SIZE);
+        set = new HashSet<>(patients);
+    }
+
+    @Benchmark
+    public int hashCodePatient() {
+        return patient.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsSameId() {
+        return patient.equals(sameId);
+    }
+
+    @Benchmark
+    public boolean equalsOtherId() {
+        return patient.equals(otherId);
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        next = next + 1 == SET_SIZE ? 0 : next + 1;
+        return set.contains(patients.get(next));
+    }
+}
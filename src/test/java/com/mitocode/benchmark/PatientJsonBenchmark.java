@@ -0,0 +1,66 @@
+package com.mitocode.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.mitocode.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Serializacion JSON de Patient: un registro (size=1) y listas de 1k y 10k, con el ObjectMapper por defecto.
+//Con -prof gc: gc.alloc.rate.norm = bytes asignados por operacion
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientJsonBenchmark {
+
+    @Param({"1", "1000", "10000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Object value;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+        List<Patient> patients = BenchmarkData.patients(size);
+        if (size == 1) {
+            value = patients.get(0);
+            writer = mapper.writerFor(Patient.class);
+            reader = mapper.readerFor(Patient.class);
+        } else {
+            value = patients;
+            writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Patient.class));
+            reader = mapper.readerForListOf(Patient.class);
+        }
+        json = writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return reader.readValue(json);
+    }
+}
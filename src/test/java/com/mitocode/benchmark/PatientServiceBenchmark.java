@@ -0,0 +1,98 @@
+package com.mitocode.benchmark;
+
+import com.mitocode.cache.PatientEntityCache;
+import com.mitocode.cache.PatientResponseCache;
+import com.mitocode.model.Patient;
+import com.mitocode.service.impl.PatientServiceImpl;
+import com.mitocode.util.DniIndex;
+import com.mitocode.util.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//PatientServiceImpl sin Spring ni BD (InMemoryPatientRepo): mide la logica propia del servicio (SingleFlight,
+//indice DNI, keyset, armado de lotes), sin cache de entidades. Sin proxy de Spring no hay @Transactional.
+//4 hilos para que SingleFlight y el indice tengan concurrencia real
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PatientServiceBenchmark {
+
+    private static final int PATIENTS = 100_000;
+    private static final int BATCH = 100;
+
+    private PatientServiceImpl service;
+
+    @Setup
+    public void setup() {
+        DniIndex dniIndex = new DniIndex(PATIENTS);
+        PatientResponseCache responseCache = new PatientResponseCache(true, DataSize.ofMegabytes(32), Duration.ofMinutes(1), new SimpleMeterRegistry());
+        //NoOpCacheManager: findById siempre llega al repositorio, como sin el cache de entidades
+        service = new PatientServiceImpl(InMemoryPatientRepo.create(BenchmarkData.patients(PATIENTS)),
+                new SingleFlight<>(), dniIndex, new PatientEntityCache(new NoOpCacheManager(), responseCache));
+        ReflectionTestUtils.setField(service, "maxPageSize", 500);
+        ReflectionTestUtils.setField(service, "maxBatchSize", 500);
+        ReflectionTestUtils.setField(service, "dniIndexEnabled", true);
+        service.buildDniIndex();
+    }
+
+    private static int randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(PATIENTS);
+    }
+
+    @Benchmark
+    public Patient findById() {
+        return service.findById(randomId());
+    }
+
+    @Benchmark
+    public Patient findByDni() {
+        return service.findByDni(BenchmarkData.dni(randomId()));
+    }
+
+    @Benchmark
+    public Object findPage() {
+        return service.findPage(null, 50);
+    }
+
+    @Benchmark
+    public Object findByIds() {
+        List<Integer> ids = new ArrayList<>(BATCH);
+        int first = randomId();
+        for (int i = 0; i < BATCH; i++) {
+            ids.add(1 + (first + i * 7) % PATIENTS);
+        }
+        return service.findByIds(ids);
+    }
+
+    //update con version null: el servicio lee la actual, guarda, actualiza el indice e invalida el cache de respuestas
+    @Benchmark
+    public Patient update() {
+        int id = randomId();
+        Patient patient = BenchmarkData.patient(id);
+        patient.setVersion(null);
+        return service.update(id, patient);
+    }
+}
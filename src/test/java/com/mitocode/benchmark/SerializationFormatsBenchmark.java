@@ -0,0 +1,106 @@
+package com.mitocode.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.mitocode.model.Consult;
+import com.mitocode.model.ConsultDetail;
+import com.mitocode.model.Medic;
+import com.mitocode.model.Patient;
+import com.mitocode.model.Specialty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Listas de 1000 Patient y Consult en JSON, CBOR y Smile: tiempo de serializar/deserializar y, con -prof gc,
+//bytes asignados por operacion. El tamano de cada payload se imprime una vez al preparar cada combinacion
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationFormatsBenchmark {
+
+    private static final int LIST_SIZE = 1_000;
+
+    @Param({"patient", "consult"})
+    private String payload;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<?> value;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> JsonMapper.builder().findAndAddModules().build();
+            case "cbor" -> CBORMapper.builder().findAndAddModules().build();
+            case "smile" -> SmileMapper.builder().findAndAddModules().build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        List<Patient> patients = BenchmarkData.patients(LIST_SIZE);
+        Class<?> type = "patient".equals(payload) ? Patient.class : Consult.class;
+        value = type == Patient.class ? patients : consults(patients);
+
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, type));
+        reader = mapper.readerForListOf(type);
+        bytes = writer.writeValueAsBytes(value);
+        System.out.printf("%n%s %s: %d bytes%n", payload, format, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return reader.readValue(bytes);
+    }
+
+    private static List<Consult> consults(List<Patient> patients) {
+        Medic medic = new Medic(1, "Jaime", "Medina", "CMP12345", null);
+        Specialty specialty = new Specialty(1, "Cardiologia", "Enfermedades del corazon");
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+        List<Consult> consults = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            Consult consult = new Consult();
+            consult.setIdConsult(patient.getIdPatient());
+            consult.setPatient(patient);
+            consult.setMedic(medic);
+            consult.setSpecialty(specialty);
+            consult.setNumConsult("C" + (patient.getIdPatient() % 100));
+            consult.setConsultDate(base.plusHours(patient.getIdPatient()));
+            List<ConsultDetail> details = new ArrayList<>();
+            for (int d = 1; d <= 2; d++) {
+                details.add(new ConsultDetail(patient.getIdPatient() * 10 + d, consult, "Diagnostico " + d,
+                        "Tratamiento de ejemplo con indicaciones de dosis y frecuencia " + d));
+            }
+            consult.setDetails(details);
+            consults.add(consult);
+        }
+        return consults;
+    }
+}
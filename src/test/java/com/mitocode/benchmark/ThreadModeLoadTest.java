@@ -0,0 +1,145 @@
+package com.mitocode.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+//Carga de lazo cerrado: N clientes concurrentes (1000 por defecto) que repiten GET /patients/{id} y GET /patients
+//hasta completar la duracion. Sirve para comparar el modo de hilos de plataforma contra el de hilos virtuales:
+//  1) mvn spring-boot:run                     -> ejecutar este main y anotar el resultado
+//  2) mvn -Pvirtual-threads spring-boot:run   -> ejecutar de nuevo con los mismos argumentos
+//No es un test (no corre con mvn test). Ejecutar: mvn test-compile exec:java -Dexec.classpathScope=test
+//  -Dexec.mainClass=com.mitocode.benchmark.ThreadModeLoadTest -Dexec.args="http://localhost:8080 1000 60 1000"
+//  argumentos: url base, clientes, segundos medidos, id maximo de paciente (los ids se eligen al azar en 1..max)
+public class ThreadModeLoadTest {
+
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 60);
+        int maxId = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("warmup %ds with %d clients against %s%n", WARMUP.toSeconds(), clients, baseUrl);
+        run(client, baseUrl, clients, WARMUP, maxId);
+
+        Result result = run(client, baseUrl, clients, duration, maxId);
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("clients=%d duration=%ds requests=%d throughput=%.1f req/s%n",
+                clients, duration.toSeconds(), latencies.length, latencies.length / seconds);
+        System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                millis(latencies, 0.50), millis(latencies, 0.99), millis(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        System.out.println("status codes: " + new TreeMap<>(result.statuses()));
+        System.out.println("transport errors: " + result.errors().sum());
+    }
+
+    private record Result(long[] latencies, Map<Integer, Long> statuses, LongAdder errors) {
+    }
+
+    private static Result run(HttpClient client, String baseUrl, int clients, Duration duration, int maxId) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder errors = new LongAdder();
+
+        //cada cliente encadena su siguiente peticion al terminar la anterior: no hace falta un hilo por cliente
+        List<CompletableFuture<LongList>> loops = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            CompletableFuture<LongList> done = new CompletableFuture<>();
+            loop(client, baseUrl, maxId, deadline, statuses, errors, new LongList(), done);
+            loops.add(done);
+        }
+
+        LongList all = new LongList();
+        for (CompletableFuture<LongList> loop : loops) {
+            all.addAll(loop.join());
+        }
+
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return new Result(all.toArray(), counts, errors);
+    }
+
+    private static void loop(HttpClient client, String baseUrl, int maxId, long deadline,
+                             Map<Integer, LongAdder> statuses, LongAdder errors,
+                             LongList latencies, CompletableFuture<LongList> done) {
+        if (System.nanoTime() >= deadline) {
+            done.complete(latencies);
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        //80% lecturas por id (cache + indice), 20% paginas por cursor (siempre van a la BD)
+        String path = random.nextInt(10) < 8
+                ? "/patients/" + (1 + random.nextInt(maxId))
+                : "/patients?size=20";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        errors.increment();
+                    } else {
+                        latencies.add(System.nanoTime() - start);
+                        statuses.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+                    }
+                    loop(client, baseUrl, maxId, deadline, statuses, errors, latencies, done);
+                });
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    //lista de long sin boxing; cada cliente tiene la suya (sus peticiones son secuenciales)
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
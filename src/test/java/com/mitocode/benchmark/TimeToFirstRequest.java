@@ -0,0 +1,100 @@
+package com.mitocode.benchmark;
+
+import java.io.File;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Tiempo hasta la primera solicitud: lanza la aplicacion como proceso nuevo, consulta GET /patients/1 hasta recibir
+//respuesta (200 o 404; cualquier status de la aplicacion sirve) y detiene el proceso. Repite N veces por variante.
+//Requiere la BD levantada con el esquema migrado (perfil migrate). Empaquetar antes:
+//  mvn -Paot,cds package -DskipTests     (jar con AOT + target/application con application.jsa)
+//No es un test (no corre con mvn test). Ejecutar: mvn test-compile exec:java -Dexec.classpathScope=test
+//  -Dexec.mainClass=com.mitocode.benchmark.TimeToFirstRequest -Dexec.args="5"
+//  argumentos: repeticiones y opcionalmente variantes "nombre=comando" (por defecto jar, cds y aot+cds)
+public class TimeToFirstRequest {
+
+    private static final String JAR = "target/mediapp-backend-0.0.1-SNAPSHOT.jar";
+    private static final String EXTRACTED_JAR = "target/application/mediapp-backend-0.0.1-SNAPSHOT.jar";
+    private static final String CDS = "-XX:SharedArchiveFile=target/application/application.jsa";
+    private static final int PORT = 8080;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        if (args.length > 1) {
+            for (int i = 1; i < args.length; i++) {
+                String[] nameAndCommand = args[i].split("=", 2);
+                variants.put(nameAndCommand[0], List.of(nameAndCommand[1].trim().split("\\s+")));
+            }
+        } else {
+            variants.put("jar", List.of("java", "-jar", JAR));
+            variants.put("cds", List.of("java", CDS, "-jar", EXTRACTED_JAR));
+            variants.put("aot+cds", List.of("java", CDS, "-Dspring.aot.enabled=true", "-jar", EXTRACTED_JAR));
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/patients/1"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        Map<String, long[]> results = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            long[] millis = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                millis[run] = timeToFirstRequest(variant.getValue(), client, request);
+                System.out.printf("%s run %d: %d ms%n", variant.getKey(), run + 1, millis[run]);
+            }
+            Arrays.sort(millis);
+            results.put(variant.getKey(), millis);
+        }
+
+        System.out.printf("%-10s %8s %8s %8s%n", "variant", "min", "median", "max");
+        results.forEach((name, millis) -> System.out.printf("%-10s %8d %8d %8d%n",
+                name, millis[0], millis[millis.length / 2], millis[millis.length - 1]));
+    }
+
+    private static long timeToFirstRequest(List<String> command, HttpClient client, HttpRequest request)
+            throws Exception {
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.add("--server.port=" + PORT);
+        Process process = new ProcessBuilder(fullCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/time-to-first-request.log"))
+                .start();
+        long start = System.nanoTime();
+        long deadline = start + STARTUP_TIMEOUT.toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Process exited with " + process.exitValue()
+                            + " (see target/time-to-first-request.log): " + command);
+                }
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                } catch (ConnectException e) {
+                    //todavia no escucha
+                    Thread.sleep(10);
+                }
+            }
+            throw new IllegalStateException("No response after " + STARTUP_TIMEOUT.toSeconds() + "s: " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+}
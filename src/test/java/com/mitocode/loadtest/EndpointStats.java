@@ -0,0 +1,81 @@
+package com.mitocode.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+//Latencias y resultados de un endpoint durante la prueba de carga
+final class EndpointStats {
+
+    private final String name;
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private long[] latencies = new long[4096];
+    private int size;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    //latencia desde el instante programado de envio (no desde que el cliente pudo enviarla): sin coordinated omission
+    synchronized void record(long nanos) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+    }
+
+    void ok() {
+        ok.increment();
+    }
+
+    //503 del control de admision o del pool: el servidor rechazo a proposito
+    void shed() {
+        shed.increment();
+    }
+
+    //otro status >= 400 o error de transporte
+    void error() {
+        errors.increment();
+    }
+
+    String name() {
+        return name;
+    }
+
+    long requests() {
+        return ok.sum() + shed.sum() + errors.sum();
+    }
+
+    double errorRate() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) errors.sum() / requests;
+    }
+
+    double shedRate() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) shed.sum() / requests;
+    }
+
+    synchronized double percentileMillis(double quantile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(size - 1, Math.max(0, Math.ceil(quantile * size) - 1));
+        return sorted[index] / 1e6;
+    }
+
+    String report(double seconds) {
+        return String.format("%-14s %9d %9.1f %7.2f%% %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, requests(), requests() / seconds, errorRate() * 100, shedRate() * 100,
+                percentileMillis(0.50), percentileMillis(0.90), percentileMillis(0.99),
+                percentileMillis(0.999), percentileMillis(1.0));
+    }
+
+    static String header() {
+        return String.format("%-14s %9s %9s %8s %8s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "req/s", "errors", "503", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+    }
+}
@@ -0,0 +1,106 @@
+package com.mitocode.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+//Generador de modelo abierto: las solicitudes llegan con tasa fija (llegadas de Poisson) sin esperar a que
+//terminen las anteriores, como usuarios reales. Si el servidor se atrasa las solicitudes se acumulan y la
+//latencia lo refleja (en un modelo cerrado los clientes se frenarian y la latencia se veria mejor de lo que es)
+final class OpenModelLoadGenerator {
+
+    record Operation(String name, int weight, Supplier<HttpRequest> request) {
+    }
+
+    private final HttpClient client;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    //tope de solicitudes en vuelo para no agotar la memoria del generador si el servidor deja de responder
+    private final Semaphore outstanding;
+    private final int maxOutstanding;
+
+    OpenModelLoadGenerator(List<Operation> operations, int maxOutstanding) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.outstanding = new Semaphore(maxOutstanding);
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    //ratePerSecond solicitudes por segundo durante duration; devuelve las estadisticas por operacion
+    Map<String, EndpointStats> run(double ratePerSecond, Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        operations.forEach(op -> stats.put(op.name(), new EndpointStats(op.name())));
+        EndpointStats generator = new EndpointStats("(generator)");
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double meanGapNanos = 1e9 / ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long next = start;
+
+        while (true) {
+            next += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (next >= end) {
+                break;
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation op = pick(random.nextInt(totalWeight));
+            EndpointStats opStats = stats.get(op.name());
+            if (!outstanding.tryAcquire()) {
+                generator.error();
+                continue;
+            }
+            long intended = next;
+            client.sendAsync(op.request().get(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        outstanding.release();
+                        opStats.record(System.nanoTime() - intended);
+                        if (error != null) {
+                            opStats.error();
+                        } else if (response.statusCode() == 503) {
+                            opStats.shed();
+                        } else if (response.statusCode() >= 400) {
+                            opStats.error();
+                        } else {
+                            opStats.ok();
+                        }
+                    });
+        }
+
+        //espera a que terminen las solicitudes en vuelo (las que no terminan en el plazo quedan sin contar)
+        if (outstanding.tryAcquire(maxOutstanding, 60, TimeUnit.SECONDS)) {
+            outstanding.release(maxOutstanding);
+        }
+        if (generator.requests() > 0) {
+            stats.put(generator.name(), generator);
+        }
+        return stats;
+    }
+
+    private Operation pick(int ticket) {
+        for (Operation op : operations) {
+            ticket -= op.weight();
+            if (ticket < 0) {
+                return op;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+}
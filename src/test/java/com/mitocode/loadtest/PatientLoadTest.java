@@ -0,0 +1,185 @@
+package com.mitocode.loadtest;
+
+import com.mitocode.loadtest.OpenModelLoadGenerator.Operation;
+import com.mitocode.service.impl.PatientServiceImpl;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Prueba de carga de punta a punta: la aplicacion completa contra un Postgres embebido (binarios de Maven, sin
+//Docker ni BD instalada), con N pacientes y consultas, y trafico mixto de lectura/escritura en modelo abierto.
+//No corre con mvn test (tag "load"). Ejecutar: mvn -Pload-test test
+//  -Dloadtest.patients=100000 -Dloadtest.consults=300000 -Dloadtest.rate=500 -Dloadtest.duration=60
+//Falla si algun endpoint supera loadtest.max-error-rate (sin contar 503) o loadtest.max-p99-ms
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "patient.sql-log.sample-rate=0",
+        //mismo esquema que produccion: lo crea Flyway (db/migration) y Hibernate solo lo valida
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class PatientLoadTest {
+
+    private static final int PATIENTS = Integer.getInteger("loadtest.patients", 100_000);
+    private static final int CONSULTS = Integer.getInteger("loadtest.consults", 300_000);
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "500"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 60));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final double MAX_P99_MS = Double.parseDouble(System.getProperty("loadtest.max-p99-ms", "500"));
+    private static final int MEDICS = 200;
+    private static final int SPECIALTIES = 20;
+
+    private static EmbeddedPostgres postgres;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PatientServiceImpl patientService;
+
+    //DNIs nuevos para los POST, fuera del rango sembrado
+    private final AtomicInteger newDni = new AtomicInteger(PATIENTS + 1);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        String hostAndDb = "//localhost:" + postgres.getPort() + "/postgres";
+        registry.add("spring.datasource.url", () -> "jdbc:postgresql:" + hostAndDb + "?reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql:" + hostAndDb);
+        registry.add("spring.r2dbc.username", () -> "postgres");
+        registry.add("spring.r2dbc.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeAll
+    static void banner() {
+        System.out.printf("load test: %d patients, %d consults, %.0f req/s for %ds%n",
+                PATIENTS, CONSULTS, RATE, DURATION.toSeconds());
+    }
+
+    //Las tablas, secuencias e indices los crea Flyway al iniciar; los datos se generan en Postgres con generate_series
+    private void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO patient (id_patient, first_name, last_name, dni, address, phone, email, version)
+                SELECT g, 'Nombre' || g, 'Apellido' || g, lpad((10000000 + g)::text, 8, '0'), 'Calle ' || g,
+                       (900000000 + g % 100000000)::text, 'paciente' || g || '@mail.com', 0
+                FROM generate_series(1, ?) g""", PATIENTS);
+        jdbcTemplate.update("""
+                INSERT INTO specialty (id_specialty, name, description)
+                SELECT g, 'Especialidad ' || g, 'Descripcion ' || g FROM generate_series(1, ?) g""", SPECIALTIES);
+        jdbcTemplate.update("""
+                INSERT INTO medic (id_medic, first_name, last_name, cmp)
+                SELECT g, 'Medico' || g, 'Apellido' || g, lpad(g::text, 6, '0') FROM generate_series(1, ?) g""", MEDICS);
+        jdbcTemplate.update("""
+                INSERT INTO consult (id_consult, id_patient, id_medic, id_specialty, num_consult, consult_date)
+                SELECT g, 1 + (g::bigint * 7919) % ?, 1 + g % ?, 1 + g % ?, lpad((g % 1000)::text, 3, '0'),
+                       now() - (g % 1095) * interval '1 day'
+                FROM generate_series(1, ?) g""", PATIENTS, MEDICS, SPECIALTIES, CONSULTS);
+        //mismo criterio que db/migration/V1: la secuencia pooled queda en MAX(id) + 50
+        for (String[] table : new String[][]{{"patient", "id_patient"}, {"specialty", "id_specialty"},
+                {"medic", "id_medic"}, {"consult", "id_consult"}}) {
+            jdbcTemplate.execute("SELECT setval('" + table[0] + "_seq', (SELECT MAX(" + table[1] + ") FROM "
+                    + table[0] + ") + 50, false)");
+        }
+        jdbcTemplate.execute("ANALYZE");
+        //el indice de DNIs se construyo al iniciar, con la tabla vacia
+        patientService.buildDniIndex();
+    }
+
+    @Test
+    void mixedTrafficStaysWithinBudget() throws InterruptedException {
+        seed();
+
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(operations(), 20_000);
+        generator.run(RATE, WARMUP);
+        Map<String, EndpointStats> stats = generator.run(RATE, DURATION);
+
+        double seconds = DURATION.toNanos() / 1e9;
+        System.out.println(EndpointStats.header());
+        stats.values().forEach(s -> System.out.println(s.report(seconds)));
+
+        for (EndpointStats s : stats.values()) {
+            assertTrue(s.errorRate() <= MAX_ERROR_RATE,
+                    () -> s.name() + " error rate " + s.errorRate() + " > " + MAX_ERROR_RATE);
+            assertTrue(s.percentileMillis(0.99) <= MAX_P99_MS,
+                    () -> s.name() + " p99 " + s.percentileMillis(0.99) + " ms > " + MAX_P99_MS + " ms");
+        }
+    }
+
+    //Mezcla de recepcion: lecturas por id/DNI y listados dominan, con un 25% de escrituras
+    private List<Operation> operations() {
+        return List.of(
+                new Operation("GET /{id}", 40, () -> get("/patients/" + randomId())),
+                new Operation("GET /dni/{dni}", 10, () -> get("/patients/dni/" + dni(randomId()))),
+                new Operation("GET page", 15, () -> get("/patients?size=50")),
+                new Operation("GET ?ids=", 10, () -> get("/patients?ids=" + randomId() + "," + randomId() + "," + randomId())),
+                new Operation("POST", 10, () -> send("POST", "/patients", patientJson(null, dni(newDni.getAndIncrement())))),
+                new Operation("PUT /{id}", 5, () -> {
+                    int id = randomId();
+                    return send("PUT", "/patients/" + id, patientJson(id, dni(id)));
+                }),
+                new Operation("PATCH /{id}", 10, () -> send("PATCH", "/patients/" + randomId(),
+                        "{\"phone\":\"" + (900000000 + ThreadLocalRandom.current().nextInt(100000000)) + "\"}")));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(PATIENTS);
+    }
+
+    private static String dni(int n) {
+        return String.format("%08d", 10_000_000 + n);
+    }
+
+    private static String patientJson(Integer id, String dni) {
+        return "{" + (id == null ? "" : "\"idPatient\":" + id + ",")
+                + "\"firstName\":\"Carga\",\"lastName\":\"Prueba\",\"dni\":\"" + dni + "\","
+                + "\"address\":\"Av. Principal 123\",\"phone\":\"987654321\",\"email\":\"carga@mail.com\"}";
+    }
+}
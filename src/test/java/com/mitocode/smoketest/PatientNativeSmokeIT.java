@@ -0,0 +1,154 @@
+package com.mitocode.smoketest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+//Prueba de humo del ejecutable nativo: Postgres embebido migrado con db/migration (como el perfil migrate), el
+//binario de target/ como proceso aparte y el CRUD de /patients por HTTP. Solo corre con mvn -Pnative verify
+//(failsafe, despues de native:compile); la ruta del binario llega en la propiedad native.executable
+class PatientNativeSmokeIT {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+
+    private static EmbeddedPostgres postgres;
+    private static Process app;
+    private static String baseUrl;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeAll
+    static void start() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        String hostAndDb = "//localhost:" + postgres.getPort() + "/postgres";
+        app = new ProcessBuilder(List.of(System.getProperty("native.executable", "target/mediapp-backend"),
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:postgresql:" + hostAndDb,
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.r2dbc.url=r2dbc:postgresql:" + hostAndDb,
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password="))
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/native-smoke-test.log"))
+                .start();
+        awaitHealthy();
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (app != null) {
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                app.destroyForcibly();
+            }
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void patientCrud() throws Exception {
+        HttpResponse<String> created = send("POST", "/patients", """
+                {"firstName":"Nativo","lastName":"Prueba","dni":"87654321","address":"Av. Principal 123",
+                 "phone":"987654321","email":"nativo@mail.com"}""");
+        assertEquals(200, created.statusCode(), created::body);
+        int id = mapper.readTree(created.body()).get("idPatient").asInt();
+
+        HttpResponse<String> found = send("GET", "/patients/" + id, null);
+        assertEquals(200, found.statusCode(), found::body);
+        assertEquals("87654321", mapper.readTree(found.body()).get("dni").asText());
+
+        HttpResponse<String> byDni = send("GET", "/patients/dni/87654321", null);
+        assertEquals(200, byDni.statusCode(), byDni::body);
+        assertEquals(id, mapper.readTree(byDni.body()).get("idPatient").asInt());
+
+        HttpResponse<String> updated = send("PUT", "/patients/" + id, """
+                {"firstName":"Nativo","lastName":"Actualizado","dni":"87654321","address":"Av. Principal 123",
+                 "phone":"987654321","email":"nativo@mail.com"}""");
+        assertEquals(200, updated.statusCode(), updated::body);
+        assertEquals("Actualizado", mapper.readTree(updated.body()).get("lastName").asText());
+
+        HttpResponse<String> patched = send("PATCH", "/patients/" + id, "{\"phone\":\"912345678\"}");
+        assertEquals(200, patched.statusCode(), patched::body);
+        assertEquals("912345678", mapper.readTree(patched.body()).get("phone").asText());
+
+        HttpResponse<String> page = send("GET", "/patients?size=10", null);
+        assertEquals(200, page.statusCode(), page::body);
+        JsonNode content = mapper.readTree(page.body()).get("content");
+        assertEquals(1, content.size(), page::body);
+
+        HttpResponse<String> deleted = send("DELETE", "/patients/" + id, null);
+        assertEquals(200, deleted.statusCode(), deleted::body);
+
+        //contrato de GET /patients/{id} para un id inexistente: 200 con un Patient vacio (idPatient null)
+        HttpResponse<String> missing = send("GET", "/patients/" + id, null);
+        assertEquals(200, missing.statusCode(), missing::body);
+        assertFalse(mapper.readTree(missing.body()).hasNonNull("idPatient"), missing::body);
+    }
+
+    private HttpResponse<String> send(String method, String path, String json) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10));
+        if (json == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json));
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void awaitHealthy() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!app.isAlive()) {
+                throw new IllegalStateException("Native executable exited with " + app.exitValue()
+                        + " (see target/native-smoke-test.log)");
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                //todavia no escucha
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Native executable not healthy after " + STARTUP_TIMEOUT.toSeconds() + "s");
+    }
+}